@@ -22,7 +22,7 @@ public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilt
 
     private static final String ALLOWED_ORIGIN = "*";
     private static final String ALLOWED_METHODS = "GET, POST, PUT, DELETE, OPTIONS, HEAD, PATCH";
-    private static final String ALLOWED_HEADERS = "Origin, Content-Type, Accept, Authorization, X-Requested-With";
+    private static final String ALLOWED_HEADERS = "Origin, Content-Type, Accept, Authorization, X-Requested-With, X-Chunk-SHA256";
     private static final String MAX_AGE = "86400";
 
     /**
@@ -0,0 +1,76 @@
+package com.gfos.ideaboard.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Anfrage-DTO für Stapeländerungen an einer Checkliste.
+ * Die Operationen werden der Reihe nach in einer Transaktion angewendet.
+ */
+public class ChecklistBatchRequest {
+
+    @NotEmpty(message = "Mindestens eine Operation ist erforderlich")
+    @Size(max = 200, message = "Höchstens 200 Operationen pro Anfrage")
+    private List<@Valid Operation> operations;
+
+    public ChecklistBatchRequest() {}
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Eine Operation: toggle, rename, move, add oder delete.
+     * itemId für alle außer add, title für rename/add, position (0-basiert) für move und optional für add.
+     */
+    public static class Operation {
+
+        @NotNull(message = "Operationstyp ist erforderlich")
+        private String op;
+
+        private Long itemId;
+        private String title;
+        private Integer position;
+
+        public Operation() {}
+
+        public String getOp() {
+            return op;
+        }
+
+        public void setOp(String op) {
+            this.op = op;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+    }
+}
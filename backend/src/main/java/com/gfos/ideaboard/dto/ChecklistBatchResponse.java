@@ -0,0 +1,58 @@
+package com.gfos.ideaboard.dto;
+
+import java.util.List;
+
+/**
+ * Antwort-DTO für Stapeländerungen an einer Checkliste.
+ * Enthält die vollständige neue Checkliste, den Fortschritt und automatische Statusübergänge.
+ */
+public class ChecklistBatchResponse {
+
+    private List<ChecklistItemDTO> items;
+    private int progressPercentage;
+    private boolean transitionedToInProgress;
+    private boolean allTodosCompleted;
+
+    public ChecklistBatchResponse() {}
+
+    public ChecklistBatchResponse(List<ChecklistItemDTO> items, int progressPercentage,
+                                  boolean transitionedToInProgress, boolean allTodosCompleted) {
+        this.items = items;
+        this.progressPercentage = progressPercentage;
+        this.transitionedToInProgress = transitionedToInProgress;
+        this.allTodosCompleted = allTodosCompleted;
+    }
+
+    // Getters und Setters
+    public List<ChecklistItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ChecklistItemDTO> items) {
+        this.items = items;
+    }
+
+    public int getProgressPercentage() {
+        return progressPercentage;
+    }
+
+    public void setProgressPercentage(int progressPercentage) {
+        this.progressPercentage = progressPercentage;
+    }
+
+    public boolean isTransitionedToInProgress() {
+        return transitionedToInProgress;
+    }
+
+    public void setTransitionedToInProgress(boolean transitionedToInProgress) {
+        this.transitionedToInProgress = transitionedToInProgress;
+    }
+
+    public boolean isAllTodosCompleted() {
+        return allTodosCompleted;
+    }
+
+    public void setAllTodosCompleted(boolean allTodosCompleted) {
+        this.allTodosCompleted = allTodosCompleted;
+    }
+}
@@ -1,12 +1,9 @@
 package com.gfos.ideaboard.dto;
 
 import com.gfos.ideaboard.entity.Comment;
-import com.gfos.ideaboard.entity.CommentReaction;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class CommentDTO {
 
@@ -22,7 +19,10 @@ public class CommentDTO {
 
     public CommentDTO() {}
 
-    public static CommentDTO fromEntity(Comment comment, Long currentUserId) {
+    /**
+     * Builds the DTO from precomputed reaction data, without touching the lazy reactions collection.
+     */
+    public static CommentDTO fromEntity(Comment comment, List<ReactionDTO> reactions, List<String> currentUserReactionEmojis) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
         dto.setIdeaId(comment.getIdea().getId());
@@ -31,26 +31,8 @@ public class CommentDTO {
         dto.setReactionCount(comment.getReactionCount());
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
-
-        // Group reaktion mit Emoji
-        Map<String, Long> reactionCounts = comment.getReactions().stream()
-                .collect(Collectors.groupingBy(CommentReaction::getEmoji, Collectors.counting()));
-
-        dto.setReactions(reactionCounts.entrySet().stream()
-                .map(entry -> new ReactionDTO(entry.getKey(), entry.getValue().intValue()))
-                .collect(Collectors.toList()));
-
-        // Collect current user's reaction emojis
-        if (currentUserId != null) {
-            List<String> userEmojis = comment.getReactions().stream()
-                    .filter(reaction -> reaction.getUser().getId().equals(currentUserId))
-                    .map(CommentReaction::getEmoji)
-                    .collect(Collectors.toList());
-            dto.setCurrentUserReactionEmojis(userEmojis);
-        } else {
-            dto.setCurrentUserReactionEmojis(new ArrayList<>());
-        }
-
+        dto.setReactions(reactions != null ? reactions : new ArrayList<>());
+        dto.setCurrentUserReactionEmojis(currentUserReactionEmojis != null ? currentUserReactionEmojis : new ArrayList<>());
         return dto;
     }
 
@@ -0,0 +1,95 @@
+package com.gfos.ideaboard.dto;
+
+import com.gfos.ideaboard.entity.DailyActivity;
+import java.time.LocalDate;
+
+public class DailyActivityDTO {
+
+    private LocalDate date;
+    private int ideas;
+    private int likes;
+    private int comments;
+    private int votes;
+    private int messages;
+    private int activeUsers;
+
+    public DailyActivityDTO() {}
+
+    public static DailyActivityDTO fromEntity(DailyActivity activity) {
+        DailyActivityDTO dto = new DailyActivityDTO();
+        dto.setDate(activity.getDay());
+        dto.setIdeas(activity.getIdeas());
+        dto.setLikes(activity.getLikes());
+        dto.setComments(activity.getComments());
+        dto.setVotes(activity.getVotes());
+        dto.setMessages(activity.getMessages());
+        dto.setActiveUsers(activity.getActiveUsers());
+        return dto;
+    }
+
+    /**
+     * A day without a rollup row, i.e. without activity or not rolled up yet.
+     */
+    public static DailyActivityDTO empty(LocalDate date) {
+        DailyActivityDTO dto = new DailyActivityDTO();
+        dto.setDate(date);
+        return dto;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getIdeas() {
+        return ideas;
+    }
+
+    public void setIdeas(int ideas) {
+        this.ideas = ideas;
+    }
+
+    public int getLikes() {
+        return likes;
+    }
+
+    public void setLikes(int likes) {
+        this.likes = likes;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public void setComments(int comments) {
+        this.comments = comments;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    public void setVotes(int votes) {
+        this.votes = votes;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public void setMessages(int messages) {
+        this.messages = messages;
+    }
+
+    public int getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(int activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+}
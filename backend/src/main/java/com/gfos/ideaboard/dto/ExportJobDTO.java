@@ -0,0 +1,129 @@
+package com.gfos.ideaboard.dto;
+
+import com.gfos.ideaboard.service.ExportJob;
+import java.time.LocalDateTime;
+
+/**
+ * Stand eines Exports im Hintergrund; nach Status COMPLETED kann die Datei bis expiresAt heruntergeladen werden.
+ */
+public class ExportJobDTO {
+
+    private String jobId;
+    private String type;
+    private String format;
+    private String status;
+    private Integer progress;
+    private Long processedRows;
+    private Long totalRows;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+    private String error;
+
+    public ExportJobDTO() {}
+
+    public static ExportJobDTO fromJob(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setJobId(job.getId());
+        dto.setType(job.getType().getDataSet());
+        dto.setFormat(job.getType().getFormat());
+        dto.setStatus(job.getStatus().name());
+        dto.setProgress(job.getProgress());
+        dto.setProcessedRows(job.getProcessedRows());
+        dto.setTotalRows(job.getTotalRows());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        dto.setExpiresAt(job.getExpiresAt());
+        dto.setError(job.getError());
+        return dto;
+    }
+
+    // Getters und Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Integer progress) {
+        this.progress = progress;
+    }
+
+    public Long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(Long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public Long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
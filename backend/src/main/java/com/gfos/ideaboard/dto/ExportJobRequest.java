@@ -0,0 +1,33 @@
+package com.gfos.ideaboard.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Anfrage-DTO für einen Export im Hintergrund, z.B. type "ideas" und format "pdf".
+ */
+public class ExportJobRequest {
+
+    @NotBlank(message = "Exporttyp ist erforderlich")
+    private String type;
+
+    @NotBlank(message = "Format ist erforderlich")
+    private String format;
+
+    public ExportJobRequest() {}
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
@@ -4,6 +4,7 @@ import com.gfos.ideaboard.entity.Survey;
 import com.gfos.ideaboard.entity.SurveyOption;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class SurveyDTO {
@@ -20,17 +21,34 @@ public class SurveyDTO {
     private Boolean hasVoted;
     private List<Long> userVotedOptionIds;
     private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
     private LocalDateTime createdAt;
 
     public SurveyDTO() {}
 
     public static SurveyDTO fromEntity(Survey survey, List<Long> userVotedOptionIds) {
+        return fromEntity(survey, survey.getOptions(), userVotedOptionIds, null);
+    }
+
+    /**
+     * Builds the DTO with vote counts taken from an in-memory tally instead of the counter columns.
+     */
+    public static SurveyDTO fromEntity(Survey survey, List<Long> userVotedOptionIds, Map<Long, Long> voteCounts) {
+        return fromEntity(survey, survey.getOptions(), userVotedOptionIds, voteCounts);
+    }
+
+    /**
+     * Builds the DTO from options loaded separately (e.g. for a whole page of surveys at once).
+     * Vote counts come from the tally if given, otherwise from the counter columns.
+     */
+    public static SurveyDTO fromEntity(Survey survey, List<SurveyOption> options, List<Long> userVotedOptionIds,
+                                       Map<Long, Long> voteCounts) {
         SurveyDTO dto = new SurveyDTO();
         dto.setId(survey.getId());
         dto.setCreator(UserDTO.fromEntity(survey.getCreator()));
         dto.setQuestion(survey.getQuestion());
         dto.setDescription(survey.getDescription());
-        dto.setOptions(survey.getOptions().stream()
+        dto.setOptions(options.stream()
                 .map(SurveyOptionDTO::fromEntity)
                 .collect(Collectors.toList()));
         dto.setIsActive(survey.getIsActive());
@@ -40,17 +58,29 @@ public class SurveyDTO {
         dto.setHasVoted(userVotedOptionIds != null && !userVotedOptionIds.isEmpty());
         dto.setUserVotedOptionIds(userVotedOptionIds);
         dto.setExpiresAt(survey.getExpiresAt());
+        dto.setClosedAt(survey.getClosedAt());
         dto.setCreatedAt(survey.getCreatedAt());
-
-        // Calculate percentages
-        if (dto.getTotalVotes() > 0) {
-            dto.getOptions().forEach(opt ->
-                    opt.setPercentage((double) opt.getVoteCount() / dto.getTotalVotes() * 100));
+        if (voteCounts != null) {
+            long total = 0;
+            for (SurveyOptionDTO option : dto.getOptions()) {
+                long count = voteCounts.getOrDefault(option.getId(), 0L);
+                option.setVoteCount((int) count);
+                total += count;
+            }
+            dto.setTotalVotes((int) total);
         }
-
+        dto.calculatePercentages();
         return dto;
     }
 
+    private void calculatePercentages() {
+        if (totalVotes != null && totalVotes > 0) {
+            options.forEach(opt -> opt.setPercentage((double) opt.getVoteCount() / totalVotes * 100));
+        } else {
+            options.forEach(opt -> opt.setPercentage(null));
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -148,6 +178,14 @@ public class SurveyDTO {
         this.expiresAt = expiresAt;
     }
 
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,99 @@
+package com.gfos.ideaboard.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vote counts of one survey as pushed over the live results stream.
+ */
+public class SurveyResultsDTO {
+
+    private Long surveyId;
+    private Integer totalVotes;
+    private List<OptionResultDTO> options;
+
+    public SurveyResultsDTO() {}
+
+    /**
+     * Builds the results from a tally snapshot (vote count per option, in display order).
+     */
+    public static SurveyResultsDTO fromSnapshot(Long surveyId, Map<Long, Long> voteCounts) {
+        SurveyResultsDTO dto = new SurveyResultsDTO();
+        dto.setSurveyId(surveyId);
+
+        long total = 0;
+        for (long count : voteCounts.values()) {
+            total += count;
+        }
+        dto.setTotalVotes((int) total);
+
+        List<OptionResultDTO> options = new ArrayList<>(voteCounts.size());
+        for (Map.Entry<Long, Long> entry : voteCounts.entrySet()) {
+            OptionResultDTO option = new OptionResultDTO();
+            option.setId(entry.getKey());
+            option.setVoteCount(entry.getValue().intValue());
+            option.setPercentage(total > 0 ? (double) entry.getValue() / total * 100 : null);
+            options.add(option);
+        }
+        dto.setOptions(options);
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public void setSurveyId(Long surveyId) {
+        this.surveyId = surveyId;
+    }
+
+    public Integer getTotalVotes() {
+        return totalVotes;
+    }
+
+    public void setTotalVotes(Integer totalVotes) {
+        this.totalVotes = totalVotes;
+    }
+
+    public List<OptionResultDTO> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<OptionResultDTO> options) {
+        this.options = options;
+    }
+
+    public static class OptionResultDTO {
+        private Long id;
+        private Integer voteCount;
+        private Double percentage;
+
+        public OptionResultDTO() {}
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Integer getVoteCount() {
+            return voteCount;
+        }
+
+        public void setVoteCount(Integer voteCount) {
+            this.voteCount = voteCount;
+        }
+
+        public Double getPercentage() {
+            return percentage;
+        }
+
+        public void setPercentage(Double percentage) {
+            this.percentage = percentage;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.gfos.ideaboard.dto;
+
+import com.gfos.ideaboard.entity.UploadSession;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stand eines stückweisen Uploads; receivedChunks zeigt dem Client nach einem Abbruch, wo er fortsetzen muss.
+ */
+public class UploadSessionDTO {
+
+    private Long uploadId;
+    private Long ideaId;
+    private String originalName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private List<Integer> receivedChunks;
+    private LocalDateTime expiresAt;
+
+    public UploadSessionDTO() {}
+
+    public static UploadSessionDTO fromEntity(UploadSession session, List<Integer> receivedChunks) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setUploadId(session.getId());
+        dto.setIdeaId(session.getIdea().getId());
+        dto.setOriginalName(session.getOriginalName());
+        dto.setTotalSize(session.getTotalSize());
+        dto.setChunkSize(session.getChunkSize());
+        dto.setChunkCount(session.getChunkCount());
+        dto.setReceivedChunks(receivedChunks);
+        dto.setExpiresAt(session.getExpiresAt());
+        return dto;
+    }
+
+    // Getters und Setters
+    public Long getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(Long uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public Long getIdeaId() {
+        return ideaId;
+    }
+
+    public void setIdeaId(Long ideaId) {
+        this.ideaId = ideaId;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(Integer chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public List<Integer> getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    public void setReceivedChunks(List<Integer> receivedChunks) {
+        this.receivedChunks = receivedChunks;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
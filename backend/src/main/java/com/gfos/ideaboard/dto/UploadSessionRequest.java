@@ -0,0 +1,49 @@
+package com.gfos.ideaboard.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Anfrage-DTO zum Starten eines stückweisen Uploads.
+ * Ohne chunkSize wählt der Server die Teilgröße.
+ */
+public class UploadSessionRequest {
+
+    @NotBlank(message = "Dateiname ist erforderlich")
+    @Size(max = 255, message = "Dateiname darf höchstens 255 Zeichen lang sein")
+    private String filename;
+
+    @NotNull(message = "Dateigröße ist erforderlich")
+    @Positive(message = "Dateigröße muss positiv sein")
+    private Long totalSize;
+
+    private Integer chunkSize;
+
+    public UploadSessionRequest() {}
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
@@ -13,6 +13,18 @@ import java.time.LocalDateTime;
 })
 public class ChecklistItem {
 
+    /**
+     * Repairs drifted checklist counters (and the progress derived from them) on ideas.
+     * Only rows whose counters differ from the actual items are written.
+     */
+    public static final String RECONCILE_COUNTS_SQL =
+            "UPDATE ideas i SET total_items = c.total, completed_items = c.completed, " +
+            "progress_percentage = CASE WHEN c.total > 0 THEN ROUND(100.0 * c.completed / c.total)::INTEGER " +
+            "ELSE i.progress_percentage END " +
+            "FROM (SELECT x.id, COUNT(ci.id) AS total, COUNT(ci.id) FILTER (WHERE ci.is_completed) AS completed " +
+            "      FROM ideas x LEFT JOIN checklist_items ci ON ci.idea_id = x.id GROUP BY x.id) c " +
+            "WHERE i.id = c.id AND (i.total_items <> c.total OR i.completed_items <> c.completed)";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
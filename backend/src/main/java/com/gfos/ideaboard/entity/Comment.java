@@ -11,7 +11,14 @@ import java.util.List;
 @Table(name = "comments")
 @NamedQueries({
     @NamedQuery(name = "Comment.findByIdea",
-                query = "SELECT c FROM Comment c WHERE c.idea.id = :ideaId ORDER BY c.createdAt DESC")
+                query = "SELECT c FROM Comment c JOIN FETCH c.author WHERE c.idea.id = :ideaId ORDER BY c.createdAt DESC, c.id DESC"),
+    @NamedQuery(name = "Comment.findByIdeaBefore",
+                query = "SELECT c FROM Comment c JOIN FETCH c.author WHERE c.idea.id = :ideaId " +
+                        "AND c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :commentId) " +
+                        "ORDER BY c.createdAt DESC, c.id DESC"),
+    @NamedQuery(name = "Comment.findByIdeaSince",
+                query = "SELECT c FROM Comment c JOIN FETCH c.author WHERE c.idea.id = :ideaId AND c.id > :commentId " +
+                        "ORDER BY c.id ASC")
 })
 public class Comment {
 
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 })
 @NamedQueries({
     @NamedQuery(name = "CommentReaction.findByCommentAndUserAndEmoji",
-                query = "SELECT r FROM CommentReaction r WHERE r.comment.id = :commentId AND r.user.id = :userId AND r.emoji = :emoji")
+                query = "SELECT r FROM CommentReaction r WHERE r.comment.id = :commentId AND r.user.id = :userId AND r.emoji = :emoji"),
+    @NamedQuery(name = "CommentReaction.findEmojisByUserAndComments",
+                query = "SELECT r.comment.id, r.emoji FROM CommentReaction r WHERE r.user.id = :userId AND r.comment.id IN :commentIds ORDER BY r.createdAt")
 })
 public class CommentReaction {
 
@@ -0,0 +1,49 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-emoji reaction count of a comment.
+ * Maintained by the trigger on comment_reactions together with comments.reaction_count; read-only for the application.
+ */
+@Entity
+@Table(name = "comment_reaction_counts", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"comment_id", "emoji"})
+})
+@NamedQueries({
+    @NamedQuery(name = "CommentReactionCount.findByComments",
+                query = "SELECT rc.comment.id, rc.emoji, rc.count FROM CommentReactionCount rc WHERE rc.comment.id IN :commentIds ORDER BY rc.comment.id, rc.emoji")
+})
+public class CommentReactionCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "comment_id", nullable = false, insertable = false, updatable = false)
+    private Comment comment;
+
+    @Column(nullable = false, length = 20, insertable = false, updatable = false)
+    private String emoji;
+
+    @Column(name = "reaction_count", nullable = false, insertable = false, updatable = false)
+    private Integer count = 0;
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Comment getComment() {
+        return comment;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+}
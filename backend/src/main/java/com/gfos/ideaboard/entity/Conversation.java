@@ -0,0 +1,143 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a direct-message conversation between two users.
+ * The pair is stored ordered (userLow.id &lt; userHigh.id), so each conversation has exactly one row.
+ * Maintained by MessageService when messages are sent or read.
+ */
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_low_id", "user_high_id"})
+})
+@NamedQueries({
+    @NamedQuery(name = "Conversation.findByUser",
+                query = "SELECT c FROM Conversation c JOIN FETCH c.userLow JOIN FETCH c.userHigh LEFT JOIN FETCH c.lastMessage " +
+                        "WHERE c.userLow.id = :userId OR c.userHigh.id = :userId ORDER BY c.lastMessageAt DESC, c.id DESC",
+                hints = @QueryHint(name = "eclipselink.left-join-fetch", value = "c.lastMessage.idea"))
+})
+public class Conversation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_low_id", nullable = false)
+    private User userLow;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_high_id", nullable = false)
+    private User userHigh;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id")
+    private Message lastMessage;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "low_unread_count", nullable = false)
+    private Integer lowUnreadCount = 0;
+
+    @Column(name = "high_unread_count", nullable = false)
+    private Integer highUnreadCount = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Returns the participant that is not the given user.
+     */
+    public User getOtherUser(Long userId) {
+        return userLow.getId().equals(userId) ? userHigh : userLow;
+    }
+
+    /**
+     * Returns the unread count from the perspective of the given user.
+     */
+    public Integer getUnreadCountFor(Long userId) {
+        return userLow.getId().equals(userId) ? lowUnreadCount : highUnreadCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUserLow() {
+        return userLow;
+    }
+
+    public void setUserLow(User userLow) {
+        this.userLow = userLow;
+    }
+
+    public User getUserHigh() {
+        return userHigh;
+    }
+
+    public void setUserHigh(User userHigh) {
+        this.userHigh = userHigh;
+    }
+
+    public Message getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(Message lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Integer getLowUnreadCount() {
+        return lowUnreadCount;
+    }
+
+    public void setLowUnreadCount(Integer lowUnreadCount) {
+        this.lowUnreadCount = lowUnreadCount;
+    }
+
+    public Integer getHighUnreadCount() {
+        return highUnreadCount;
+    }
+
+    public void setHighUnreadCount(Integer highUnreadCount) {
+        this.highUnreadCount = highUnreadCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
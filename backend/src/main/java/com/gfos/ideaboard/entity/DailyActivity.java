@@ -0,0 +1,118 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Activity counts of one calendar day, rolled up from the fact tables.
+ * Written only through {@link #ROLL_UP_SQL}; read-only for the application.
+ */
+@Entity
+@Table(name = "daily_activity")
+@NamedQueries({
+    @NamedQuery(name = "DailyActivity.findRange",
+                query = "SELECT d FROM DailyActivity d WHERE d.day BETWEEN :from AND :to ORDER BY d.day"),
+    @NamedQuery(name = "DailyActivity.findLastDay", query = "SELECT MAX(d.day) FROM DailyActivity d")
+})
+public class DailyActivity {
+
+    /**
+     * Recomputes the days in [?1, ?2) from the fact tables and upserts one row per day, days without
+     * activity included. Each fact table is read once through its created_at index.
+     * Active users are the distinct users who created an idea, like, comment, vote or message that day.
+     */
+    public static final String ROLL_UP_SQL =
+            "WITH r AS (SELECT CAST(?1 AS TIMESTAMP) AS from_ts, CAST(?2 AS TIMESTAMP) AS to_ts), " +
+            "e AS (" +
+            "SELECT CAST(created_at AS DATE) AS day, 'I' AS kind, author_id AS user_id FROM ideas, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 'L', user_id FROM likes, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 'C', author_id FROM comments, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 'V', user_id FROM survey_votes, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 'M', sender_id FROM messages, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 'M', sender_id FROM group_messages, r " +
+            "WHERE created_at >= r.from_ts AND created_at < r.to_ts) " +
+            "INSERT INTO daily_activity (day, ideas, likes, comments, votes, messages, active_users, computed_at) " +
+            "SELECT CAST(g AS DATE), " +
+            "COUNT(e.kind) FILTER (WHERE e.kind = 'I'), COUNT(e.kind) FILTER (WHERE e.kind = 'L'), " +
+            "COUNT(e.kind) FILTER (WHERE e.kind = 'C'), COUNT(e.kind) FILTER (WHERE e.kind = 'V'), " +
+            "COUNT(e.kind) FILTER (WHERE e.kind = 'M'), COUNT(DISTINCT e.user_id), CURRENT_TIMESTAMP " +
+            "FROM r CROSS JOIN generate_series(r.from_ts, r.to_ts - INTERVAL '1 day', INTERVAL '1 day') g " +
+            "LEFT JOIN e ON e.day = CAST(g AS DATE) " +
+            "GROUP BY g " +
+            "ON CONFLICT (day) DO UPDATE SET ideas = EXCLUDED.ideas, likes = EXCLUDED.likes, " +
+            "comments = EXCLUDED.comments, votes = EXCLUDED.votes, messages = EXCLUDED.messages, " +
+            "active_users = EXCLUDED.active_users, computed_at = EXCLUDED.computed_at";
+
+    /**
+     * Day of the oldest recorded activity, or NULL if there is none.
+     */
+    public static final String FIRST_ACTIVITY_DAY_SQL =
+            "SELECT CAST(LEAST(" +
+            "(SELECT MIN(created_at) FROM ideas), (SELECT MIN(created_at) FROM likes), " +
+            "(SELECT MIN(created_at) FROM comments), (SELECT MIN(created_at) FROM survey_votes), " +
+            "(SELECT MIN(created_at) FROM messages), (SELECT MIN(created_at) FROM group_messages)) AS DATE)";
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer ideas = 0;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer likes = 0;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer comments = 0;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer votes = 0;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer messages = 0;
+
+    @Column(name = "active_users", nullable = false, insertable = false, updatable = false)
+    private Integer activeUsers = 0;
+
+    @Column(name = "computed_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime computedAt;
+
+    // Getters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Integer getIdeas() {
+        return ideas;
+    }
+
+    public Integer getLikes() {
+        return likes;
+    }
+
+    public Integer getComments() {
+        return comments;
+    }
+
+    public Integer getVotes() {
+        return votes;
+    }
+
+    public Integer getMessages() {
+        return messages;
+    }
+
+    public Integer getActiveUsers() {
+        return activeUsers;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+}
@@ -6,6 +6,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "file_attachments")
+@NamedQueries({
+    @NamedQuery(name = "FileAttachment.findByIdeaWithBlob",
+                query = "SELECT a FROM FileAttachment a LEFT JOIN FETCH a.blob WHERE a.idea.id = :ideaId ORDER BY a.uploadedAt, a.id")
+})
 public class FileAttachment {
 
     @Id
@@ -42,6 +46,11 @@ public class FileAttachment {
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
 
+    // NULL bei Anhängen aus der Zeit vor dem inhaltsadressierten Speicher
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id", updatable = false)
+    private FileBlob blob;
+
     @PrePersist
     protected void onCreate() {
         uploadedAt = LocalDateTime.now();
@@ -115,4 +124,12 @@ public class FileAttachment {
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
+
+    public FileBlob getBlob() {
+        return blob;
+    }
+
+    public void setBlob(FileBlob blob) {
+        this.blob = blob;
+    }
 }
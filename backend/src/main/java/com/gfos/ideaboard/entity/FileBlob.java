@@ -0,0 +1,82 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stored file content, addressed by its SHA-256 hash. Identical uploads share one blob;
+ * ref_count is maintained by a trigger on file_attachments and blobs without references are garbage-collected.
+ */
+@Entity
+@Table(name = "file_blobs")
+@NamedQueries({
+    @NamedQuery(name = "FileBlob.findUnreferencedIds",
+                query = "SELECT b.id FROM FileBlob b WHERE b.refCount = 0 AND b.unreferencedSince < :cutoff ORDER BY b.id"),
+    @NamedQuery(name = "FileBlob.findExistingHashes",
+                query = "SELECT b.sha256 FROM FileBlob b WHERE b.sha256 IN :hashes")
+})
+public class FileBlob {
+
+    /** Inserts the blob or locks the existing row with the same hash, so the GC cannot delete it concurrently. */
+    public static final String UPSERT_SQL =
+            "INSERT INTO file_blobs (sha256, file_size) VALUES (?1, ?2) " +
+            "ON CONFLICT (sha256) DO UPDATE SET file_size = EXCLUDED.file_size RETURNING id";
+
+    /** Deletes a blob only if it is still unreferenced; waits for uploads that currently reuse it. */
+    public static final String DELETE_UNREFERENCED_SQL =
+            "DELETE FROM file_blobs WHERE id = ?1 AND ref_count = 0 RETURNING sha256, file_size";
+
+    /** Logical size (all attachments) versus physical size (referenced blobs) of the blob store. */
+    public static final String STORAGE_STATS_SQL =
+            "SELECT (SELECT COUNT(*) FROM file_attachments WHERE blob_id IS NOT NULL), " +
+            "(SELECT COALESCE(SUM(file_size), 0) FROM file_attachments WHERE blob_id IS NOT NULL), " +
+            "(SELECT COUNT(*) FROM file_blobs WHERE ref_count > 0), " +
+            "(SELECT COALESCE(SUM(file_size), 0) FROM file_blobs WHERE ref_count > 0), " +
+            "(SELECT COUNT(*) FROM file_blobs WHERE ref_count = 0), " +
+            "(SELECT COALESCE(SUM(file_size), 0) FROM file_blobs WHERE ref_count = 0)";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64, updatable = false)
+    private String sha256;
+
+    @Column(name = "file_size", nullable = false, updatable = false)
+    private Long fileSize;
+
+    // Wird ausschließlich vom Trigger gepflegt
+    @Column(name = "ref_count", nullable = false, insertable = false, updatable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "unreferenced_since", insertable = false, updatable = false)
+    private LocalDateTime unreferencedSince;
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUnreferencedSince() {
+        return unreferencedSince;
+    }
+}
@@ -15,7 +15,9 @@ import java.time.LocalDateTime;
     @NamedQuery(name = "GroupMember.findByGroupWithUser",
                 query = "SELECT gm FROM GroupMember gm LEFT JOIN FETCH gm.user WHERE gm.group.id = :groupId ORDER BY gm.joinedAt ASC"),
     @NamedQuery(name = "GroupMember.countByGroup",
-                query = "SELECT COUNT(gm) FROM GroupMember gm WHERE gm.group.id = :groupId")
+                query = "SELECT COUNT(gm) FROM GroupMember gm WHERE gm.group.id = :groupId"),
+    @NamedQuery(name = "GroupMember.findGroupIdsByUser",
+                query = "SELECT gm.group.id FROM GroupMember gm WHERE gm.user.id = :userId")
 })
 public class GroupMember {
 
@@ -19,6 +19,39 @@ import java.util.List;
 })
 public class Idea {
 
+    /**
+     * Idea totals per status and since ?1 (week start), together with the user, like, comment and survey totals,
+     * in a single statement.
+     */
+    public static final String STATISTICS_SQL =
+            "SELECT COUNT(*), " +
+            "COUNT(*) FILTER (WHERE status = 'CONCEPT'), " +
+            "COUNT(*) FILTER (WHERE status = 'IN_PROGRESS'), " +
+            "COUNT(*) FILTER (WHERE status = 'COMPLETED'), " +
+            "COUNT(*) FILTER (WHERE created_at >= ?1), " +
+            "(SELECT COUNT(*) FROM users), (SELECT COUNT(*) FROM users WHERE is_active), " +
+            "(SELECT COUNT(*) FROM likes), (SELECT COUNT(*) FROM comments), " +
+            "(SELECT COUNT(*) FROM surveys WHERE is_active) " +
+            "FROM ideas";
+
+    /**
+     * Changed and deleted ideas after a watermark (?1 change time, ?2 id), ordered by change time and id.
+     * Changes younger than ?3 seconds are left for the next call, so transactions still in flight are not skipped.
+     */
+    public static final String CHANGES_SINCE_SQL =
+            "WITH w AS (SELECT CAST(?1 AS TIMESTAMP) AS changed_at, CAST(?2 AS BIGINT) AS id, " +
+            "LOCALTIMESTAMP - make_interval(secs => ?3) AS settled_before) " +
+            "SELECT c.* FROM (" +
+            "SELECT i.updated_at AS changed_at, i.id, FALSE AS deleted, i.title, i.description, i.category, " +
+            "i.status, i.progress_percentage, u.username, i.like_count, i.comment_count, i.created_at " +
+            "FROM w JOIN ideas i ON (i.updated_at, i.id) > (w.changed_at, w.id) AND i.updated_at < w.settled_before " +
+            "JOIN users u ON u.id = i.author_id " +
+            "UNION ALL " +
+            "SELECT t.deleted_at, t.idea_id, TRUE, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL " +
+            "FROM w JOIN idea_tombstones t ON (t.deleted_at, t.idea_id) > (w.changed_at, w.id) " +
+            "AND t.deleted_at < w.settled_before" +
+            ") c ORDER BY c.changed_at, c.id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -57,6 +90,13 @@ public class Idea {
     @Column(name = "view_count", nullable = false)
     private Integer viewCount = 0;
 
+    // Maintained by the trigger on checklist_items, together with progress_percentage
+    @Column(name = "total_items", nullable = false, insertable = false, updatable = false)
+    private Integer totalItems = 0;
+
+    @Column(name = "completed_items", nullable = false, insertable = false, updatable = false)
+    private Integer completedItems = 0;
+
     @Column(name = "is_featured", nullable = false)
     private Boolean isFeatured = false;
 
@@ -169,6 +209,14 @@ public class Idea {
         this.commentCount = commentCount;
     }
 
+    public Integer getTotalItems() {
+        return totalItems;
+    }
+
+    public Integer getCompletedItems() {
+        return completedItems;
+    }
+
     public Integer getViewCount() {
         return viewCount;
     }
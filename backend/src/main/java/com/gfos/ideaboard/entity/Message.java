@@ -6,6 +6,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "messages")
+@NamedNativeQuery(name = "Message.findConversationBefore",
+                  query = Message.CONVERSATION_BEFORE_SQL,
+                  resultClass = Message.class)
 @NamedQueries({
     @NamedQuery(name = "Message.findConversation",
                 query = "SELECT m FROM Message m WHERE (m.sender.id = :user1 AND m.recipient.id = :user2) OR (m.sender.id = :user2 AND m.recipient.id = :user1) ORDER BY m.createdAt ASC"),
@@ -22,6 +25,14 @@ import java.time.LocalDateTime;
 })
 public class Message {
 
+    /**
+     * Keyset page of a conversation, newest first. The LEAST/GREATEST predicate and the id ordering
+     * match idx_messages_conversation, so the page is read straight from the index.
+     */
+    public static final String CONVERSATION_BEFORE_SQL =
+            "SELECT * FROM messages WHERE LEAST(sender_id, recipient_id) = ?1 " +
+            "AND GREATEST(sender_id, recipient_id) = ?2 AND id < ?3 ORDER BY id DESC";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -10,13 +10,27 @@ import java.util.List;
 @Entity
 @Table(name = "surveys")
 @NamedQueries({
+    @NamedQuery(name = "Survey.findAll",
+                query = "SELECT s FROM Survey s JOIN FETCH s.creator ORDER BY s.createdAt DESC, s.id DESC"),
     @NamedQuery(name = "Survey.findActive",
-                query = "SELECT s FROM Survey s WHERE s.isActive = true ORDER BY s.createdAt DESC"),
+                query = "SELECT s FROM Survey s JOIN FETCH s.creator WHERE s.isActive = true ORDER BY s.createdAt DESC, s.id DESC"),
+    @NamedQuery(name = "Survey.findExpiredIds",
+                query = "SELECT s.id FROM Survey s WHERE s.isActive = true AND s.expiresAt <= :now ORDER BY s.expiresAt"),
+    @NamedQuery(name = "Survey.findExpiredIdsExcept",
+                query = "SELECT s.id FROM Survey s WHERE s.isActive = true AND s.expiresAt <= :now " +
+                        "AND s.id NOT IN :excludedIds ORDER BY s.expiresAt"),
     @NamedQuery(name = "Survey.findByCreator",
                 query = "SELECT s FROM Survey s WHERE s.creator.id = :creatorId ORDER BY s.createdAt DESC")
 })
 public class Survey {
 
+    /**
+     * Checks that a survey is still open and holds a key-share lock on its row until the vote commits.
+     * Voters do not block each other; closing the survey (SELECT ... FOR UPDATE) waits for them and vice versa.
+     */
+    public static final String LOCK_OPEN_SQL =
+            "SELECT id FROM surveys WHERE id = ?1 AND is_active FOR KEY SHARE";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -48,6 +62,9 @@ public class Survey {
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -136,6 +153,14 @@ public class Survey {
         this.expiresAt = expiresAt;
     }
 
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
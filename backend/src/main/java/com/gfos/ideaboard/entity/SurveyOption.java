@@ -6,6 +6,12 @@ import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "survey_options")
+@NamedQueries({
+    @NamedQuery(name = "SurveyOption.findCountsBySurvey",
+                query = "SELECT o.id, o.voteCount FROM SurveyOption o WHERE o.survey.id = :surveyId ORDER BY o.displayOrder ASC"),
+    @NamedQuery(name = "SurveyOption.findBySurveys",
+                query = "SELECT o.survey.id, o FROM SurveyOption o WHERE o.survey.id IN :surveyIds ORDER BY o.survey.id, o.displayOrder ASC")
+})
 public class SurveyOption {
 
     @Id
@@ -0,0 +1,67 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Final vote count of one option of a closed survey.
+ * Written once when the survey is closed and never updated; closed surveys are served from these rows.
+ */
+@Entity
+@Table(name = "survey_results", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"survey_id", "option_id"})
+})
+@NamedQueries({
+    @NamedQuery(name = "SurveyResult.findBySurveys",
+                query = "SELECT r.survey.id, r.option.id, r.voteCount FROM SurveyResult r WHERE r.survey.id IN :surveyIds")
+})
+public class SurveyResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "survey_id", nullable = false, updatable = false)
+    private Survey survey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "option_id", nullable = false, updatable = false)
+    private SurveyOption option;
+
+    @Column(name = "vote_count", nullable = false, updatable = false)
+    private Integer voteCount;
+
+    @Column(name = "frozen_at", nullable = false, updatable = false)
+    private LocalDateTime frozenAt;
+
+    public SurveyResult() {}
+
+    public SurveyResult(Survey survey, SurveyOption option, Integer voteCount, LocalDateTime frozenAt) {
+        this.survey = survey;
+        this.option = option;
+        this.voteCount = voteCount;
+        this.frozenAt = frozenAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Survey getSurvey() {
+        return survey;
+    }
+
+    public SurveyOption getOption() {
+        return option;
+    }
+
+    public Integer getVoteCount() {
+        return voteCount;
+    }
+
+    public LocalDateTime getFrozenAt() {
+        return frozenAt;
+    }
+}
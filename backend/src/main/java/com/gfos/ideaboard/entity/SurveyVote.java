@@ -11,10 +11,28 @@ import java.time.LocalDateTime;
     @NamedQuery(name = "SurveyVote.findByUserAndSurvey",
                 query = "SELECT v FROM SurveyVote v WHERE v.user.id = :userId AND v.survey.id = :surveyId"),
     @NamedQuery(name = "SurveyVote.countByUserAndSurvey",
-                query = "SELECT COUNT(v) FROM SurveyVote v WHERE v.user.id = :userId AND v.survey.id = :surveyId")
+                query = "SELECT COUNT(v) FROM SurveyVote v WHERE v.user.id = :userId AND v.survey.id = :surveyId"),
+    @NamedQuery(name = "SurveyVote.countBySurveyGroupedByOption",
+                query = "SELECT v.option.id, COUNT(v) FROM SurveyVote v WHERE v.survey.id = :surveyId GROUP BY v.option.id"),
+    @NamedQuery(name = "SurveyVote.findOptionIdsByUserAndSurveys",
+                query = "SELECT v.survey.id, v.option.id FROM SurveyVote v WHERE v.user.id = :userId AND v.survey.id IN :surveyIds")
 })
 public class SurveyVote {
 
+    /**
+     * Inserts a vote; a repeated vote for the same option is ignored by the unique constraint.
+     */
+    public static final String INSERT_VOTE_SQL =
+            "INSERT INTO survey_votes (survey_id, option_id, user_id, created_at) VALUES (?1, ?2, ?3, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (survey_id, user_id, option_id) DO NOTHING";
+
+    /**
+     * Registers a user as participant of a survey; updates no row if the user already voted.
+     */
+    public static final String INSERT_PARTICIPANT_SQL =
+            "INSERT INTO survey_participants (survey_id, user_id, created_at) VALUES (?1, ?2, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (survey_id, user_id) DO NOTHING";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,74 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A received and verified chunk of a chunked upload.
+ */
+@Entity
+@Table(name = "upload_chunks", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"session_id", "chunk_index"})
+})
+@NamedQueries({
+    @NamedQuery(name = "UploadChunk.findIndexesBySession",
+                query = "SELECT c.chunkIndex FROM UploadChunk c WHERE c.session.id = :sessionId ORDER BY c.chunkIndex"),
+    @NamedQuery(name = "UploadChunk.countBySession",
+                query = "SELECT COUNT(c) FROM UploadChunk c WHERE c.session.id = :sessionId")
+})
+public class UploadChunk {
+
+    /**
+     * Records a chunk; a chunk sent again (e.g. after a lost response) replaces the earlier one.
+     */
+    public static final String UPSERT_SQL =
+            "INSERT INTO upload_chunks (session_id, chunk_index, chunk_size, sha256, received_at) " +
+            "VALUES (?1, ?2, ?3, ?4, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (session_id, chunk_index) DO UPDATE SET chunk_size = EXCLUDED.chunk_size, " +
+            "sha256 = EXCLUDED.sha256, received_at = EXCLUDED.received_at";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false, updatable = false)
+    private UploadSession session;
+
+    @Column(name = "chunk_index", nullable = false, updatable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public UploadSession getSession() {
+        return session;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+}
@@ -0,0 +1,124 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A chunked upload in progress. The chunks live on disk until the upload is completed,
+ * then they are assembled into one attachment and the session is deleted.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@NamedQueries({
+    @NamedQuery(name = "UploadSession.findExpiredIds",
+                query = "SELECT s.id FROM UploadSession s WHERE s.expiresAt < :now ORDER BY s.id")
+})
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "idea_id", nullable = false, updatable = false)
+    private Idea idea;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploader_id", nullable = false, updatable = false)
+    private User uploader;
+
+    @Column(name = "original_name", nullable = false, updatable = false)
+    private String originalName;
+
+    @Column(name = "total_size", nullable = false, updatable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false, updatable = false)
+    private Integer chunkSize;
+
+    @Column(name = "chunk_count", nullable = false, updatable = false)
+    private Integer chunkCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Expected size of the chunk with the given index; only the last chunk may be shorter.
+     */
+    public long expectedChunkSize(int index) {
+        return index < chunkCount - 1 ? chunkSize : totalSize - (long) chunkSize * (chunkCount - 1);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Idea getIdea() {
+        return idea;
+    }
+
+    public void setIdea(Idea idea) {
+        this.idea = idea;
+    }
+
+    public User getUploader() {
+        return uploader;
+    }
+
+    public void setUploader(User uploader) {
+        this.uploader = uploader;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(Integer chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -17,6 +17,20 @@ import java.util.List;
 })
 public class User {
 
+    /**
+     * All users with their activity counts for the CSV export, in one pass: each count is aggregated once per table
+     * and joined to the users instead of running three COUNT queries per user.
+     */
+    public static final String EXPORT_WITH_ACTIVITY_SQL =
+            "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.role, u.xp_points, u.level, " +
+            "COALESCE(i.idea_count, 0), COALESCE(l.like_count, 0), COALESCE(c.comment_count, 0), " +
+            "u.is_active, u.created_at " +
+            "FROM users u " +
+            "LEFT JOIN (SELECT author_id, COUNT(*) AS idea_count FROM ideas GROUP BY author_id) i ON i.author_id = u.id " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS like_count FROM likes GROUP BY user_id) l ON l.user_id = u.id " +
+            "LEFT JOIN (SELECT author_id, COUNT(*) AS comment_count FROM comments GROUP BY author_id) c ON c.author_id = u.id " +
+            "ORDER BY u.created_at DESC, u.id DESC";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -2,21 +2,23 @@ package com.gfos.ideaboard.resource;
 
 import com.gfos.ideaboard.dto.IdeaDTO;
 import com.gfos.ideaboard.entity.IdeaStatus;
+import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.DailyActivityService;
+import com.gfos.ideaboard.service.FileBlobCollector;
+import com.gfos.ideaboard.service.FileService;
 import com.gfos.ideaboard.service.IdeaService;
+import com.gfos.ideaboard.service.StatisticsService;
+import com.gfos.ideaboard.service.StatisticsSnapshot;
 import com.gfos.ideaboard.service.SurveyService;
 import jakarta.inject.Inject;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,98 +30,88 @@ import java.util.stream.Collectors;
 @Secured
 public class DashboardResource {
 
-    @PersistenceContext(unitName = "IdeaBoardPU")
-    private EntityManager em;
-
     @Inject
     private IdeaService ideaService;
 
+    @Inject
+    private StatisticsService statisticsService;
+
+    @Inject
+    private DailyActivityService dailyActivityService;
+
     @Inject
     private SurveyService surveyService;
 
+    @Inject
+    private FileService fileService;
+
+    @Inject
+    private FileBlobCollector fileBlobCollector;
+
+    /**
+     * Kennzahlen für das Dashboard. Stammen aus dem gemeinsamen, zwischengespeicherten Statistikstand
+     * und sind daher höchstens wenige Minuten alt (siehe computedAt).
+     */
     @GET
     @Path("/statistics")
     public Response getStatistics() {
+        StatisticsSnapshot snapshot = statisticsService.getSnapshot();
         Map<String, Object> stats = new HashMap<>();
 
-        // Gesamtzahl der Ideen
-        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
-        stats.put("totalIdeas", totalIdeas);
-
-        // Gesamtzahl der Benutzer
-        Long totalUsers = em.createQuery("SELECT COUNT(u) FROM User u WHERE u.isActive = true", Long.class).getSingleResult();
-        stats.put("totalUsers", totalUsers);
-
-        // Ideen diese Woche - Sonntag derselben oder vorherigen Woche abrufen
-        LocalDateTime weekStartTime = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY)).atStartOfDay();
-        Long ideasThisWeek = em.createQuery(
-                "SELECT COUNT(i) FROM Idea i WHERE i.createdAt >= :weekStart", Long.class)
-                .setParameter("weekStart", weekStartTime)
-                .getSingleResult();
-        stats.put("ideasThisWeek", ideasThisWeek);
-
-        // Statuszahlen - Enum-Parameter statt String-Literale verwenden
-        Long conceptIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                .setParameter("status", IdeaStatus.CONCEPT).getSingleResult();
-        Long inProgressIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                .setParameter("status", IdeaStatus.IN_PROGRESS).getSingleResult();
-        Long completedIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                .setParameter("status", IdeaStatus.COMPLETED).getSingleResult();
-        stats.put("conceptIdeas", conceptIdeas);
-        stats.put("inProgressIdeas", inProgressIdeas);
-        stats.put("completedIdeas", completedIdeas);
-
-        // Gesamtzahl der Likes
-        Long totalLikes = em.createQuery("SELECT COUNT(l) FROM Like l", Long.class).getSingleResult();
-        stats.put("totalLikes", totalLikes);
-
-        // Gesamtzahl der Kommentare
-        Long totalComments = em.createQuery("SELECT COUNT(c) FROM Comment c", Long.class).getSingleResult();
-        stats.put("totalComments", totalComments);
-
-        // Aktive Umfragen
-        Long activeSurveys = em.createQuery("SELECT COUNT(s) FROM Survey s WHERE s.isActive = true", Long.class).getSingleResult();
-        stats.put("activeSurveys", activeSurveys);
-
-        // Beliebteste Kategorie
-        List<Object[]> categoryResults = em.createQuery(
-                "SELECT i.category, COUNT(i) as cnt FROM Idea i GROUP BY i.category ORDER BY cnt DESC", Object[].class)
-                .getResultList();
-        stats.put("popularCategory", categoryResults.isEmpty() ? "N/A" : categoryResults.get(0)[0]);
+        stats.put("totalIdeas", snapshot.getTotalIdeas());
+        // Nur aktive Benutzer zählen
+        stats.put("totalUsers", snapshot.getActiveUsers());
+        stats.put("ideasThisWeek", snapshot.getIdeasThisWeek());
+        stats.put("conceptIdeas", snapshot.getIdeasByStatus().get(IdeaStatus.CONCEPT));
+        stats.put("inProgressIdeas", snapshot.getIdeasByStatus().get(IdeaStatus.IN_PROGRESS));
+        stats.put("completedIdeas", snapshot.getIdeasByStatus().get(IdeaStatus.COMPLETED));
+        stats.put("totalLikes", snapshot.getTotalLikes());
+        stats.put("totalComments", snapshot.getTotalComments());
+        stats.put("activeSurveys", snapshot.getActiveSurveys());
+
+        // Kategorien sind nach Anzahl absteigend sortiert, die erste ist die beliebteste
+        Map<String, Long> categories = snapshot.getIdeasByCategory();
+        stats.put("popularCategory", categories.isEmpty() ? "N/A" : categories.keySet().iterator().next());
 
         // Kategorieaufschlüsselung für Diagramme
-        List<Map<String, Object>> categoryBreakdown = categoryResults.stream()
-                .map(row -> {
+        List<Map<String, Object>> categoryBreakdown = categories.entrySet().stream()
+                .map(entry -> {
                     Map<String, Object> item = new HashMap<>();
-                    item.put("category", row[0]);
-                    item.put("count", row[1]);
+                    item.put("category", entry.getKey());
+                    item.put("count", entry.getValue());
                     return item;
                 })
                 .collect(Collectors.toList());
         stats.put("categoryBreakdown", categoryBreakdown);
 
-        // Wöchentliche Aktivität (Ideen pro Tag diese Woche) - Native Abfrage für PostgreSQL-Datumstrunkierung verwenden
-        // weekStartTime von oben wiederverwenden
-        java.sql.Timestamp weekStartTs = java.sql.Timestamp.valueOf(weekStartTime);
-        @SuppressWarnings("unchecked")
-        List<Object[]> weeklyActivity = em.createNativeQuery(
-                "SELECT DATE(created_at) as day, COUNT(*) as cnt FROM ideas " +
-                "WHERE created_at >= ?1 GROUP BY DATE(created_at) ORDER BY day")
-                .setParameter(1, weekStartTs)
-                .getResultList();
-        List<Map<String, Object>> activityData = weeklyActivity.stream()
-                .map(row -> {
+        // Wöchentliche Aktivität (Ideen pro Tag diese Woche)
+        List<Map<String, Object>> activityData = snapshot.getIdeasPerDayThisWeek().entrySet().stream()
+                .map(entry -> {
                     Map<String, Object> item = new HashMap<>();
-                    item.put("date", row[0].toString());
-                    item.put("ideas", ((Number) row[1]).longValue());
+                    item.put("date", entry.getKey().toString());
+                    item.put("ideas", entry.getValue());
                     return item;
                 })
                 .collect(Collectors.toList());
         stats.put("weeklyActivity", activityData);
+        stats.put("computedAt", snapshot.getComputedAt().toString());
 
         return Response.ok(stats).build();
     }
 
+    /**
+     * Tägliche Aktivität (Ideen, Likes, Kommentare, Stimmen, Nachrichten, aktive Benutzer) im Zeitraum
+     * from bis to (jeweils einschließlich, ISO-Datum). Standard sind die letzten 30 Tage.
+     * Stammt aus den Tagesverdichtungen, der laufende Tag ist höchstens eine Minute alt.
+     */
+    @GET
+    @Path("/timeseries")
+    public Response getTimeseries(@QueryParam("from") String from, @QueryParam("to") String to) {
+        LocalDate toDay = parseDate(to, LocalDate.now());
+        LocalDate fromDay = parseDate(from, toDay.minusDays(29));
+        return Response.ok(dailyActivityService.getTimeseries(fromDay, toDay)).build();
+    }
+
     @GET
     @Path("/top-ideas")
     public Response getTopIdeas(@Context ContainerRequestContext requestContext) {
@@ -156,4 +148,32 @@ public class DashboardResource {
         Long userId = (Long) requestContext.getProperty("userId");
         return Response.ok(surveyService.getActiveSurveys(userId)).build();
     }
+
+    /**
+     * Speicherbelegung der Dateianhänge: logische vs. physische Größe, Einsparung durch Deduplizierung
+     * und Ergebnisse der Garbage Collection (nur Administratoren).
+     */
+    @GET
+    @Path("/storage")
+    public Response getStorageStatistics(@Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren können Speicherstatistiken anzeigen");
+        }
+
+        Map<String, Object> stats = fileService.getStorageStats();
+        stats.put("garbageCollection", fileBlobCollector.getStatistics());
+        return Response.ok(stats).build();
+    }
+
+    private LocalDate parseDate(String value, LocalDate defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Ungültiges Datum: " + value);
+        }
+    }
 }
@@ -1,15 +1,25 @@
 package com.gfos.ideaboard.resource;
 
+import com.gfos.ideaboard.dto.ExportJobDTO;
+import com.gfos.ideaboard.dto.ExportJobRequest;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.ExportJob;
+import com.gfos.ideaboard.service.ExportJobService;
 import com.gfos.ideaboard.service.ExportService;
+import com.gfos.ideaboard.service.ExportType;
+import com.gfos.ideaboard.service.Watermark;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 
 @Path("/export")
 @Secured
@@ -18,6 +28,9 @@ public class ExportResource {
     @Inject
     private ExportService exportService;
 
+    @Inject
+    private ExportJobService exportJobService;
+
     @GET
     @Path("/ideas/csv")
     @Produces("text/csv")
@@ -27,12 +40,35 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
 
-        byte[] csv = exportService.exportIdeasToCsv();
+        // Zeilen werden direkt aus dem Datenbank-Cursor in die Antwort geschrieben
+        StreamingOutput csv = exportService::writeIdeasCsv;
         return Response.ok(csv)
+                .type("text/csv; charset=UTF-8")
                 .header("Content-Disposition", "attachment; filename=\"ideas.csv\"")
                 .build();
     }
 
+    /**
+     * Inkrementeller Export für BI-Systeme: nur seit dem Watermark-Token geänderte und gelöschte Ideen als NDJSON.
+     * Ohne Token werden alle Ideen geliefert; die letzte Zeile enthält das Token für den nächsten Abruf.
+     */
+    @GET
+    @Path("/ideas/changes")
+    @Produces("application/x-ndjson")
+    public Response exportIdeaChanges(@QueryParam("since") String since,
+                                      @Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+
+        Watermark watermark = Watermark.parse(since);
+        StreamingOutput changes = output -> exportService.writeIdeaChanges(output, watermark);
+        return Response.ok(changes)
+                .type("application/x-ndjson; charset=UTF-8")
+                .build();
+    }
+
     @GET
     @Path("/statistics/csv")
     @Produces("text/csv")
@@ -57,14 +93,27 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
 
-        try {
-            byte[] pdf = exportService.exportStatisticsToPdf();
-            return Response.ok(pdf)
-                    .header("Content-Disposition", "attachment; filename=\"statistics.pdf\"")
-                    .build();
-        } catch (IOException e) {
-            throw ApiException.serverError("Fehler beim Generieren des PDF: " + e.getMessage());
+        // Fertige Seiten werden direkt in die Antwort geschrieben
+        StreamingOutput pdf = exportService::writeStatisticsPdf;
+        return Response.ok(pdf)
+                .header("Content-Disposition", "attachment; filename=\"statistics.pdf\"")
+                .build();
+    }
+
+    @GET
+    @Path("/ideas/pdf")
+    @Produces("application/pdf")
+    public Response exportIdeasPdf(@Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
+
+        // Bericht mit einem Abschnitt pro Idee, seitenweise aus dem Datenbank-Cursor erzeugt
+        StreamingOutput pdf = exportService::writeIdeasPdf;
+        return Response.ok(pdf)
+                .header("Content-Disposition", "attachment; filename=\"ideas.pdf\"")
+                .build();
     }
 
     @GET
@@ -76,9 +125,121 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren können Benutzerdaten exportieren");
         }
 
-        byte[] csv = exportService.exportUsersToCsv();
+        StreamingOutput csv = exportService::writeUsersCsv;
         return Response.ok(csv)
+                .type("text/csv; charset=UTF-8")
                 .header("Content-Disposition", "attachment; filename=\"users.csv\"")
                 .build();
     }
+
+    @GET
+    @Path("/ideas/xlsx")
+    @Produces(ExportType.XLSX_MEDIA_TYPE)
+    public Response exportIdeasXlsx(@Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+
+        // Arbeitsmappe wird zeilenweise mit begrenztem Zeilenfenster im Speicher erzeugt
+        StreamingOutput xlsx = exportService::writeIdeasXlsx;
+        return Response.ok(xlsx)
+                .header("Content-Disposition", "attachment; filename=\"ideas.xlsx\"")
+                .build();
+    }
+
+    @GET
+    @Path("/statistics/xlsx")
+    @Produces(ExportType.XLSX_MEDIA_TYPE)
+    public Response exportStatisticsXlsx(@Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+
+        StreamingOutput xlsx = exportService::writeStatisticsXlsx;
+        return Response.ok(xlsx)
+                .header("Content-Disposition", "attachment; filename=\"statistics.xlsx\"")
+                .build();
+    }
+
+    @GET
+    @Path("/users/xlsx")
+    @Produces(ExportType.XLSX_MEDIA_TYPE)
+    public Response exportUsersXlsx(@Context ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren können Benutzerdaten exportieren");
+        }
+
+        StreamingOutput xlsx = exportService::writeUsersXlsx;
+        return Response.ok(xlsx)
+                .header("Content-Disposition", "attachment; filename=\"users.xlsx\"")
+                .build();
+    }
+
+    /**
+     * Export im Hintergrund starten. Eine gleiche Anfrage innerhalb der Aufbewahrungszeit erhält denselben Auftrag.
+     */
+    @POST
+    @Path("/jobs")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createJob(@Valid ExportJobRequest request, @Context ContainerRequestContext requestContext) {
+        ExportType type = ExportType.of(request.getType(), request.getFormat());
+        if (type == null) {
+            throw ApiException.badRequest("Unbekannter Export: " + request.getType() + "/" + request.getFormat());
+        }
+        checkAccess(type, requestContext);
+
+        ExportJob job = exportJobService.submit(type);
+        Response.Status status = job.getStatus() == ExportJob.Status.COMPLETED
+                ? Response.Status.OK : Response.Status.ACCEPTED;
+        return Response.status(status).entity(ExportJobDTO.fromJob(job)).build();
+    }
+
+    /**
+     * Stand und Fortschritt eines Exports abfragen.
+     */
+    @GET
+    @Path("/jobs/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJob(@PathParam("jobId") String jobId, @Context ContainerRequestContext requestContext) {
+        ExportJob job = exportJobService.getJob(jobId);
+        checkAccess(job.getType(), requestContext);
+        return Response.ok(ExportJobDTO.fromJob(job)).build();
+    }
+
+    /**
+     * Fertige Exportdatei herunterladen.
+     */
+    @GET
+    @Path("/jobs/{jobId}/download")
+    @Produces(MediaType.WILDCARD)
+    public Response downloadJob(@PathParam("jobId") String jobId, @Context ContainerRequestContext requestContext) {
+        ExportType type = exportJobService.getJob(jobId).getType();
+        checkAccess(type, requestContext);
+
+        // Datei sofort öffnen, damit das Aufräumen sie während der Übertragung nicht entfernen kann
+        InputStream file;
+        try {
+            file = Files.newInputStream(exportJobService.getArtifact(jobId));
+        } catch (IOException e) {
+            throw ApiException.notFound("Export ist abgelaufen");
+        }
+        return Response.ok(file)
+                .type(type.getMediaType())
+                .header("Content-Disposition", "attachment; filename=\"" + type.getFilename() + "\"")
+                .build();
+    }
+
+    private void checkAccess(ExportType type, ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (type.isAdminOnly() && !"ADMIN".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren können Benutzerdaten exportieren");
+        }
+        if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+    }
 }
@@ -1,28 +1,42 @@
 package com.gfos.ideaboard.resource;
 
+import com.gfos.ideaboard.dto.ChecklistBatchRequest;
+import com.gfos.ideaboard.dto.ChecklistBatchResponse;
 import com.gfos.ideaboard.dto.ChecklistItemDTO;
 import com.gfos.ideaboard.dto.ChecklistToggleResponse;
 import com.gfos.ideaboard.dto.CommentDTO;
 import com.gfos.ideaboard.dto.FileAttachmentDTO;
 import com.gfos.ideaboard.dto.IdeaDTO;
+import com.gfos.ideaboard.dto.UploadSessionDTO;
+import com.gfos.ideaboard.dto.UploadSessionRequest;
 import com.gfos.ideaboard.entity.FileAttachment;
 import com.gfos.ideaboard.entity.IdeaStatus;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.ByteRange;
 import com.gfos.ideaboard.service.ChecklistService;
+import com.gfos.ideaboard.service.ChunkedUploadService;
 import com.gfos.ideaboard.service.CommentService;
 import com.gfos.ideaboard.service.FileService;
 import com.gfos.ideaboard.service.IdeaService;
 import com.gfos.ideaboard.service.LikeService;
+import com.gfos.ideaboard.service.ThumbnailService;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 import java.io.InputStream;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +47,9 @@ import java.util.Map;
 @Secured
 public class IdeaResource {
 
+    // Vorschaubilder sind unveränderlich (ein Jahr)
+    private static final int THUMBNAIL_MAX_AGE_SECONDS = 365 * 24 * 60 * 60;
+
     @Inject
     private IdeaService ideaService;
 
@@ -45,6 +62,9 @@ public class IdeaResource {
     @Inject
     private FileService fileService;
 
+    @Inject
+    private ChunkedUploadService chunkedUploadService;
+
     @Inject
     private ChecklistService checklistService;
 
@@ -178,9 +198,22 @@ public class IdeaResource {
     @GET
     @Path("/{id}/comments")
     public Response getComments(@PathParam("id") Long id,
+                                @QueryParam("limit") @DefaultValue("50") int limit,
+                                @QueryParam("before") Long before,
                                 @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        List<CommentDTO> comments = commentService.getCommentsByIdea(id, userId);
+        List<CommentDTO> comments = commentService.getCommentsByIdea(id, userId, limit, before);
+        return Response.ok(comments).build();
+    }
+
+    @GET
+    @Path("/{id}/comments/since/{commentId}")
+    public Response getCommentsSince(@PathParam("id") Long id,
+                                     @PathParam("commentId") Long commentId,
+                                     @QueryParam("limit") @DefaultValue("100") int limit,
+                                     @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        List<CommentDTO> comments = commentService.getCommentsSince(id, userId, commentId, limit);
         return Response.ok(comments).build();
     }
 
@@ -220,30 +253,182 @@ public class IdeaResource {
             @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
 
-        try {
-            byte[] fileData = fileInputStream.readAllBytes();
-            String mimeType = determineMimeType(fileDetail.getFileName());
-
-            FileAttachmentDTO attachment = fileService.uploadFile(
-                    id, fileDetail.getFileName(), mimeType, fileData, userId);
-            return Response.status(Response.Status.CREATED).entity(attachment).build();
-        } catch (Exception e) {
-            throw ApiException.serverError("Fehler beim Hochladen der Datei: " + e.getMessage());
+        if (fileInputStream == null || fileDetail == null) {
+            throw ApiException.badRequest("Datei ist erforderlich");
         }
+
+        // Direkt auf die Festplatte streamen, ohne die Datei im Speicher zu halten
+        FileAttachmentDTO attachment = fileService.uploadFile(
+                id, fileDetail.getFileName(), fileInputStream, userId);
+        return Response.status(Response.Status.CREATED).entity(attachment).build();
+    }
+
+    /**
+     * Stückweisen, fortsetzbaren Upload starten (für große Dateien und instabile Verbindungen).
+     */
+    @POST
+    @Path("/{id}/uploads")
+    public Response initiateUpload(@PathParam("id") Long id, @Valid UploadSessionRequest request,
+                                   @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        UploadSessionDTO session = chunkedUploadService.initiate(id, request, userId);
+        return Response.status(Response.Status.CREATED).entity(session).build();
     }
 
+    /**
+     * Stand eines Uploads abfragen, z.B. um nach einem Verbindungsabbruch fehlende Teile zu ermitteln.
+     */
+    @GET
+    @Path("/{id}/uploads/{uploadId}")
+    public Response getUpload(@PathParam("id") Long id, @PathParam("uploadId") Long uploadId,
+                              @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        return Response.ok(chunkedUploadService.getSession(id, uploadId, userId)).build();
+    }
+
+    /**
+     * Einen Teil hochladen; X-Chunk-SHA256 enthält optional die SHA-256-Prüfsumme des Teils (hex).
+     */
+    @PUT
+    @Path("/{id}/uploads/{uploadId}/chunks/{index}")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    public Response uploadChunk(
+            @PathParam("id") Long id,
+            @PathParam("uploadId") Long uploadId,
+            @PathParam("index") int index,
+            @HeaderParam("X-Chunk-SHA256") String checksum,
+            InputStream content,
+            @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        return Response.ok(chunkedUploadService.putChunk(id, uploadId, index, checksum, content, userId)).build();
+    }
+
+    /**
+     * Upload abschließen: Teile zusammensetzen und als Anhang speichern.
+     */
+    @POST
+    @Path("/{id}/uploads/{uploadId}/complete")
+    public Response completeUpload(@PathParam("id") Long id, @PathParam("uploadId") Long uploadId,
+                                   @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        FileAttachmentDTO attachment = chunkedUploadService.complete(id, uploadId, userId);
+        return Response.status(Response.Status.CREATED).entity(attachment).build();
+    }
+
+    @DELETE
+    @Path("/{id}/uploads/{uploadId}")
+    public Response abortUpload(@PathParam("id") Long id, @PathParam("uploadId") Long uploadId,
+                                @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        chunkedUploadService.abort(id, uploadId, userId);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Alle Anhänge einer Idee als ZIP-Archiv; das Archiv wird beim Senden erzeugt, nicht zwischengespeichert.
+     */
+    @GET
+    @Path("/{id}/files/archive")
+    @Produces("application/zip")
+    public Response downloadArchive(@PathParam("id") Long id) {
+        return Response.ok(fileService.streamArchive(id))
+                .header("Content-Disposition", "attachment; filename=\"idee-" + id + "-anhaenge.zip\"")
+                .build();
+    }
+
+    /**
+     * Datei-Download mit Unterstützung für Range-Anfragen (206), bedingte Anfragen (304)
+     * und Inline-Vorschau (?inline=true). Der Inhalt wird direkt von der Festplatte gestreamt.
+     */
     @GET
     @Path("/{id}/files/{fileId}")
-    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.WILDCARD)
     public Response downloadFile(
             @PathParam("id") Long id,
-            @PathParam("fileId") Long fileId) {
-        byte[] fileData = fileService.getFile(id, fileId);
-        FileAttachment attachment = fileService.getFileAttachment(fileId);
+            @PathParam("fileId") Long fileId,
+            @QueryParam("inline") @DefaultValue("false") boolean inline,
+            @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange,
+            @Context Request request) {
+        FileAttachment attachment = fileService.getFileAttachment(id, fileId);
+        long size = attachment.getFileSize();
+
+        // Gespeicherte Dateien sind unveränderlich, daher genügen ID, Größe und Upload-Zeitpunkt als ETag
+        Date lastModified = Date.from(attachment.getUploadedAt().truncatedTo(ChronoUnit.SECONDS)
+                .atZone(ZoneId.systemDefault()).toInstant());
+        EntityTag etag = new EntityTag(fileId + "-" + size + "-" + lastModified.getTime());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModified, etag);
+        if (notModified != null) {
+            return notModified.tag(etag).lastModified(lastModified).cacheControl(cacheControl).build();
+        }
+
+        java.nio.file.Path filePath = fileService.getStoredFile(attachment);
+        ByteRange byteRange = ByteRange.parse(range, size);
+        if (byteRange != null && ifRange != null && !ifRange.equals(etag.toString())) {
+            // Datei hat sich seit dem ersten Teil geändert (oder If-Range ist ein Datum): vollständig senden
+            byteRange = null;
+        }
+
+        Response.ResponseBuilder builder;
+        if (byteRange == null) {
+            builder = Response.ok(fileService.streamFile(filePath, 0, size))
+                    .header("Content-Length", size);
+        } else if (!byteRange.isSatisfiable()) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + size)
+                    .build();
+        } else {
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(fileService.streamFile(filePath, byteRange.getStart(), byteRange.getLength()))
+                    .header("Content-Range", "bytes " + byteRange.getStart() + "-" + byteRange.getEnd() + "/" + size)
+                    .header("Content-Length", byteRange.getLength());
+        }
+
+        return builder
+                .type(attachment.getMimeType())
+                .header("Content-Disposition", (inline ? "inline" : "attachment")
+                        + "; filename=\"" + attachment.getOriginalName() + "\"")
+                .header("Accept-Ranges", "bytes")
+                .tag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    /**
+     * Vorschaubild eines Bildanhangs (längste Kante in Pixeln). Vorschauen ändern sich nie,
+     * daher darf der Browser sie dauerhaft zwischenspeichern.
+     */
+    @GET
+    @Path("/{id}/files/{fileId}/thumbnail")
+    @Produces({"image/jpeg", "image/png"})
+    public Response getThumbnail(
+            @PathParam("id") Long id,
+            @PathParam("fileId") Long fileId,
+            @QueryParam("size") @DefaultValue("320") int size,
+            @Context Request request) {
+        FileAttachment attachment = fileService.getFileAttachment(id, fileId);
+        EntityTag etag = new EntityTag(fileId + "-" + size);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setMaxAge(THUMBNAIL_MAX_AGE_SECONDS);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
 
-        return Response.ok(fileData)
-                .header("Content-Disposition", "attachment; filename=\"" + attachment.getOriginalName() + "\"")
-                .header("Content-Type", attachment.getMimeType())
+        java.nio.file.Path thumbnail = fileService.getThumbnail(attachment, size);
+        long length = thumbnail.toFile().length();
+        return Response.ok(fileService.streamFile(thumbnail, 0, length))
+                .type(ThumbnailService.thumbnailType(attachment.getMimeType()))
+                .header("Content-Length", length)
+                .tag(etag)
+                .cacheControl(cacheControl)
                 .build();
     }
 
@@ -271,22 +456,37 @@ public class IdeaResource {
     public Response createChecklistItem(@PathParam("id") Long id, Map<String, String> body,
                                         @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
+        String role = (String) requestContext.getProperty("role");
         String title = body.get("title");
 
         if (title == null || title.trim().isEmpty()) {
             throw ApiException.badRequest("Titel ist erforderlich");
         }
 
-        ChecklistItemDTO item = checklistService.createChecklistItem(id, title, userId);
+        ChecklistItemDTO item = checklistService.createChecklistItem(id, title, userId, role);
         return Response.status(Response.Status.CREATED).entity(item).build();
     }
 
+    /**
+     * Mehrere Checklisten-Operationen (toggle, rename, move, add, delete) atomar anwenden.
+     */
+    @PATCH
+    @Path("/{id}/checklist")
+    public Response applyChecklistBatch(@PathParam("id") Long id, @Valid ChecklistBatchRequest request,
+                                        @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        String role = (String) requestContext.getProperty("role");
+        ChecklistBatchResponse result = checklistService.applyChecklistBatch(id, request.getOperations(), userId, role);
+        return Response.ok(result).build();
+    }
+
     @PATCH
     @Path("/{id}/checklist/{itemId}/toggle")
     public Response toggleChecklistItem(@PathParam("id") Long id, @PathParam("itemId") Long itemId,
                                         @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        ChecklistToggleResponse result = checklistService.toggleChecklistItem(id, itemId, userId);
+        String role = (String) requestContext.getProperty("role");
+        ChecklistToggleResponse result = checklistService.toggleChecklistItem(id, itemId, userId, role);
         return Response.ok(result).build();
     }
 
@@ -296,8 +496,9 @@ public class IdeaResource {
                                         Map<String, String> body,
                                         @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
+        String role = (String) requestContext.getProperty("role");
         String title = body.get("title");
-        ChecklistItemDTO item = checklistService.updateChecklistItem(id, itemId, title, userId);
+        ChecklistItemDTO item = checklistService.updateChecklistItem(id, itemId, title, userId, role);
         return Response.ok(item).build();
     }
 
@@ -306,24 +507,8 @@ public class IdeaResource {
     public Response deleteChecklistItem(@PathParam("id") Long id, @PathParam("itemId") Long itemId,
                                         @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        checklistService.deleteChecklistItem(id, itemId, userId);
+        String role = (String) requestContext.getProperty("role");
+        checklistService.deleteChecklistItem(id, itemId, userId, role);
         return Response.noContent().build();
     }
-
-    private String determineMimeType(String filename) {
-        if (filename == null) return "application/octet-stream";
-        String lower = filename.toLowerCase();
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
-        if (lower.endsWith(".png")) return "image/png";
-        if (lower.endsWith(".gif")) return "image/gif";
-        if (lower.endsWith(".webp")) return "image/webp";
-        if (lower.endsWith(".pdf")) return "application/pdf";
-        if (lower.endsWith(".doc")) return "application/msword";
-        if (lower.endsWith(".docx")) return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
-        if (lower.endsWith(".xls")) return "application/vnd.ms-excel";
-        if (lower.endsWith(".xlsx")) return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-        if (lower.endsWith(".txt")) return "text/plain";
-        if (lower.endsWith(".csv")) return "text/csv";
-        return "application/octet-stream";
-    }
 }
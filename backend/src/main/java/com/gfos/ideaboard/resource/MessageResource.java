@@ -46,24 +46,27 @@ public class MessageResource {
      */
     @GET
     @Path("/conversations")
-    public Response getConversations(@Context ContainerRequestContext requestContext) {
+    public Response getConversations(
+            @QueryParam("limit") @DefaultValue("50") int limit,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        List<ConversationDTO> conversations = messageService.getUserConversations(userId);
+        List<ConversationDTO> conversations = messageService.getUserConversations(userId, limit, offset);
         return Response.ok(conversations).build();
     }
 
     /**
-     * Rufe Nachrichten in einer Konversation mit einem anderen Benutzer ab
+     * Rufe die neuesten Nachrichten einer Konversation ab, mit "before" die Nachrichten vor dieser ID
      */
     @GET
     @Path("/conversations/{userId}")
     public Response getConversation(
             @PathParam("userId") Long otherUserId,
             @QueryParam("limit") @DefaultValue("50") int limit,
-            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("before") Long before,
             @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        List<MessageDTO> messages = messageService.getConversation(userId, otherUserId, limit, offset);
+        List<MessageDTO> messages = messageService.getConversation(userId, otherUserId, limit, before);
         return Response.ok(messages).build();
     }
 
@@ -3,6 +3,7 @@ package com.gfos.ideaboard.resource;
 import com.gfos.ideaboard.dto.SurveyDTO;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.SurveyResultsBroadcaster;
 import com.gfos.ideaboard.service.SurveyService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -10,6 +11,10 @@ import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +28,9 @@ public class SurveyResource {
     @Inject
     private SurveyService surveyService;
 
+    @Inject
+    private SurveyResultsBroadcaster resultsBroadcaster;
+
     @GET
     public Response getSurveys(
             @QueryParam("page") @DefaultValue("0") int page,
@@ -55,6 +63,16 @@ public class SurveyResource {
         return Response.ok(survey).build();
     }
 
+    /**
+     * Live-Ergebnisse als Server-Sent Events: höchstens 4 "results"-Events pro Sekunde, nur bei Änderungen.
+     */
+    @GET
+    @Path("/{id}/results/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamResults(@PathParam("id") Long id, @Context SseEventSink eventSink, @Context Sse sse) {
+        resultsBroadcaster.subscribe(id, eventSink, sse);
+    }
+
     @POST
     public Response createSurvey(Map<String, Object> body, @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
@@ -70,8 +88,19 @@ public class SurveyResource {
             throw ApiException.badRequest("Frage ist erforderlich");
         }
 
+        // Optionales Ablaufdatum im ISO-Format (z. B. 2024-06-30T18:00:00)
+        LocalDateTime expiresAt = null;
+        String expiresAtRaw = (String) body.get("expiresAt");
+        if (expiresAtRaw != null && !expiresAtRaw.isBlank()) {
+            try {
+                expiresAt = LocalDateTime.parse(expiresAtRaw);
+            } catch (DateTimeParseException e) {
+                throw ApiException.badRequest("Ungültiges Ablaufdatum");
+            }
+        }
+
         SurveyDTO survey = surveyService.createSurvey(question, description, options,
-                isAnonymous, allowMultipleVotes, userId);
+                isAnonymous, allowMultipleVotes, expiresAt, userId);
         return Response.status(Response.Status.CREATED).entity(survey).build();
     }
 
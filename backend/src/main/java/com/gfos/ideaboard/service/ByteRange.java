@@ -0,0 +1,72 @@
+package com.gfos.ideaboard.service;
+
+/**
+ * A single byte range of an HTTP Range header ("bytes=start-end", "bytes=start-" or "bytes=-suffix").
+ * Multiple ranges are not supported; such requests are answered with the full content.
+ */
+public final class ByteRange {
+
+    private final long start;
+    private final long end;
+    private final boolean satisfiable;
+
+    private ByteRange(long start, long end, boolean satisfiable) {
+        this.start = start;
+        this.end = end;
+        this.satisfiable = satisfiable;
+    }
+
+    /**
+     * Parses a Range header against a content of the given size.
+     * Returns null if the header is absent, malformed or asks for several ranges (serve the full content);
+     * a range starting beyond the content is returned as not satisfiable (416).
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                // Suffix: die letzten n Bytes
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0) {
+                    return new ByteRange(0, 0, false);
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1, size > 0);
+            }
+
+            long start = Long.parseLong(from);
+            long last = to.isEmpty() ? Long.MAX_VALUE : Long.parseLong(to);
+            if (start < 0 || last < start) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(last, size - 1), start < size);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+}
@@ -0,0 +1,56 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically repairs drift between the checklist counters on ideas and the actual checklist items,
+ * e.g. after manual data fixes or items changed while the trigger was disabled.
+ */
+@ApplicationScoped
+public class ChecklistCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChecklistCounterReconciler.class);
+
+    private static final long RECONCILE_INTERVAL_MINUTES = 60;
+
+    @Inject
+    private ChecklistService checklistService;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> reconcileTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        reconcileTask = scheduler.scheduleWithFixedDelay(this::reconcileSafely,
+                RECONCILE_INTERVAL_MINUTES, RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (reconcileTask != null) {
+            reconcileTask.cancel(false);
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            int repaired = checklistService.reconcileCounters();
+            if (repaired > 0) {
+                logger.warn("Checklisten-Zähler von {} Idee(n) korrigiert", repaired);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Abgleich der Checklisten-Zähler fehlgeschlagen", e);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.gfos.ideaboard.service;
 
+import com.gfos.ideaboard.dto.ChecklistBatchRequest;
+import com.gfos.ideaboard.dto.ChecklistBatchResponse;
 import com.gfos.ideaboard.dto.ChecklistItemDTO;
 import com.gfos.ideaboard.dto.ChecklistToggleResponse;
 import com.gfos.ideaboard.entity.ChecklistItem;
 import com.gfos.ideaboard.entity.Idea;
 import com.gfos.ideaboard.entity.IdeaStatus;
-import com.gfos.ideaboard.entity.User;
 import com.gfos.ideaboard.entity.UserRole;
 import com.gfos.ideaboard.exception.ApiException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -35,18 +41,16 @@ public class ChecklistService {
 
     /**
      * Prüft, ob der Benutzer die Checkliste bearbeiten darf.
-     * Erlaubt für: Autor der Idee, PROJECT_MANAGER oder ADMIN
+     * Erlaubt für: Autor der Idee, PROJECT_MANAGER oder ADMIN.
+     * Die Rolle stammt aus dem Token, der Benutzer wird nicht erneut geladen.
      */
-    private boolean canEditChecklist(Idea idea, Long currentUserId) {
-        User currentUser = em.find(User.class, currentUserId);
-        if (currentUser == null) return false;
-
+    private boolean canEditChecklist(Idea idea, Long currentUserId, String currentUserRole) {
         // Autor kann bearbeiten
         if (idea.getAuthor().getId().equals(currentUserId)) return true;
 
         // PM/Admin kann bearbeiten
-        return currentUser.getRole() == UserRole.PROJECT_MANAGER ||
-               currentUser.getRole() == UserRole.ADMIN;
+        return UserRole.PROJECT_MANAGER.name().equals(currentUserRole) ||
+               UserRole.ADMIN.name().equals(currentUserRole);
     }
 
     /**
@@ -59,7 +63,7 @@ public class ChecklistService {
     }
 
     @Transactional
-    public ChecklistItemDTO createChecklistItem(Long ideaId, String title, Long currentUserId) {
+    public ChecklistItemDTO createChecklistItem(Long ideaId, String title, Long currentUserId, String currentUserRole) {
         // Eingabe validieren
         if (title == null || title.trim().isEmpty()) {
             throw ApiException.badRequest("Checklistenelement-Titel ist erforderlich");
@@ -74,7 +78,7 @@ public class ChecklistService {
         }
 
         // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
-        if (!canEditChecklist(idea, currentUserId)) {
+        if (!canEditChecklist(idea, currentUserId, currentUserRole)) {
             throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente hinzuzufügen");
         }
 
@@ -93,23 +97,26 @@ public class ChecklistService {
         item.setIsCompleted(false);
         item.setOrdinalPosition(maxPosition + 1);
 
+        // Zähler und Fortschritt der Idee pflegt der Trigger auf checklist_items
         em.persist(item);
 
-        // Ideenfortschritt basierend auf der Checkliste aktualisieren
-        updateIdeaProgress(idea);
-
         return ChecklistItemDTO.fromEntity(item);
     }
 
+    /**
+     * Schaltet ein Element um: eine Zeilenänderung am Element, der Trigger aktualisiert Zähler und Fortschritt.
+     * Die Idee wird gesperrt, damit die Zähler für die Statusübergänge exakt sind.
+     */
     @Transactional
-    public ChecklistToggleResponse toggleChecklistItem(Long ideaId, Long itemId, Long currentUserId) {
-        Idea idea = em.find(Idea.class, ideaId);
+    public ChecklistToggleResponse toggleChecklistItem(Long ideaId, Long itemId, Long currentUserId,
+                                                       String currentUserRole) {
+        Idea idea = em.find(Idea.class, ideaId, LockModeType.PESSIMISTIC_WRITE);
         if (idea == null) {
             throw ApiException.notFound("Idee nicht gefunden");
         }
 
         // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
-        if (!canEditChecklist(idea, currentUserId)) {
+        if (!canEditChecklist(idea, currentUserId, currentUserRole)) {
             throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente zu aktualisieren");
         }
 
@@ -127,12 +134,12 @@ public class ChecklistService {
         }
 
         // Fertigstellungsstatus umschalten
-        item.setIsCompleted(!item.getIsCompleted());
-        em.merge(item);
+        boolean completed = !item.getIsCompleted();
+        item.setIsCompleted(completed);
 
-        // Ideenfortschritt basierend auf Checklistenfertigstellung aktualisieren
-        // und Statusübergänge prüfen
-        StatusTransitionResult result = updateIdeaProgressWithTransitions(idea);
+        // Statusübergänge anhand der Zähler nach dem Umschalten prüfen
+        int completedCount = idea.getCompletedItems() + (completed ? 1 : -1);
+        StatusTransitionResult result = applyStatusTransitions(idea, completedCount, idea.getTotalItems());
 
         return new ChecklistToggleResponse(
             ChecklistItemDTO.fromEntity(item),
@@ -142,14 +149,14 @@ public class ChecklistService {
     }
 
     @Transactional
-    public void deleteChecklistItem(Long ideaId, Long itemId, Long currentUserId) {
+    public void deleteChecklistItem(Long ideaId, Long itemId, Long currentUserId, String currentUserRole) {
         Idea idea = em.find(Idea.class, ideaId);
         if (idea == null) {
             throw ApiException.notFound("Idee nicht gefunden");
         }
 
         // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
-        if (!canEditChecklist(idea, currentUserId)) {
+        if (!canEditChecklist(idea, currentUserId, currentUserRole)) {
             throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente zu löschen");
         }
 
@@ -166,21 +173,20 @@ public class ChecklistService {
             throw ApiException.badRequest("Checklistenelement gehört nicht zu dieser Idee");
         }
 
+        // Zähler und Fortschritt der Idee pflegt der Trigger auf checklist_items
         em.remove(item);
-
-        // Ideenfortschritt aktualisieren
-        updateIdeaProgress(idea);
     }
 
     @Transactional
-    public ChecklistItemDTO updateChecklistItem(Long ideaId, Long itemId, String title, Long currentUserId) {
+    public ChecklistItemDTO updateChecklistItem(Long ideaId, Long itemId, String title, Long currentUserId,
+                                                String currentUserRole) {
         Idea idea = em.find(Idea.class, ideaId);
         if (idea == null) {
             throw ApiException.notFound("Idee nicht gefunden");
         }
 
         // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
-        if (!canEditChecklist(idea, currentUserId)) {
+        if (!canEditChecklist(idea, currentUserId, currentUserRole)) {
             throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente zu aktualisieren");
         }
 
@@ -211,50 +217,134 @@ public class ChecklistService {
     }
 
     /**
-     * Aktualisiert den Fortschrittsprozentsatz der Idee basierend auf der Checklistenfertigstellung.
-     * Fortschritt = (fertiggestellte Elemente / Gesamtelemente) * 100
+     * Wendet mehrere Operationen (toggle, rename, move, add, delete) atomar in einer Transaktion an.
+     * Die Checkliste wird einmal geladen und im Speicher geändert; am Ende werden nur geänderte Elemente
+     * geschrieben, Positionen einmal neu vergeben und Statusübergänge einmal geprüft.
+     * Schlägt eine Operation fehl, wird keine angewendet.
      */
-    private void updateIdeaProgress(Idea idea) {
-        List<ChecklistItem> items = em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
-                .setParameter("ideaId", idea.getId())
-                .getResultList();
+    @Transactional
+    public ChecklistBatchResponse applyChecklistBatch(Long ideaId, List<ChecklistBatchRequest.Operation> operations,
+                                                      Long currentUserId, String currentUserRole) {
+        Idea idea = em.find(Idea.class, ideaId, LockModeType.PESSIMISTIC_WRITE);
+        if (idea == null) {
+            throw ApiException.notFound("Idee nicht gefunden");
+        }
+
+        // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
+        if (!canEditChecklist(idea, currentUserId, currentUserRole)) {
+            throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente zu aktualisieren");
+        }
+
+        // Prüfe, ob die Idee nicht abgeschlossen ist
+        validateChecklistEditable(idea);
+
+        List<ChecklistItem> items = new ArrayList<>(em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
+                .setParameter("ideaId", ideaId)
+                .getResultList());
+        Map<Long, ChecklistItem> itemsById = new HashMap<>();
+        items.forEach(item -> itemsById.put(item.getId(), item));
+
+        for (ChecklistBatchRequest.Operation operation : operations) {
+            String op = operation.getOp() != null ? operation.getOp().toLowerCase(Locale.ROOT) : "";
+            switch (op) {
+                case "toggle" -> {
+                    ChecklistItem item = requireItem(itemsById, operation.getItemId());
+                    item.setIsCompleted(!item.getIsCompleted());
+                }
+                case "rename" -> requireItem(itemsById, operation.getItemId())
+                        .setTitle(validateTitle(operation.getTitle()));
+                case "move" -> {
+                    ChecklistItem item = requireItem(itemsById, operation.getItemId());
+                    int position = requirePosition(operation.getPosition(), items.size() - 1);
+                    items.remove(item);
+                    items.add(position, item);
+                }
+                case "add" -> {
+                    ChecklistItem item = new ChecklistItem();
+                    item.setIdea(idea);
+                    item.setTitle(validateTitle(operation.getTitle()));
+                    item.setIsCompleted(false);
+                    int position = operation.getPosition() != null
+                            ? requirePosition(operation.getPosition(), items.size())
+                            : items.size();
+                    items.add(position, item);
+                    em.persist(item);
+                }
+                case "delete" -> {
+                    ChecklistItem item = requireItem(itemsById, operation.getItemId());
+                    items.remove(item);
+                    itemsById.remove(item.getId());
+                    em.remove(item);
+                }
+                default -> throw ApiException.badRequest("Unbekannte Checklisten-Operation: " + operation.getOp());
+            }
+        }
+
+        // Positionen lückenlos neu vergeben; unveränderte Elemente werden nicht geschrieben
+        for (int i = 0; i < items.size(); i++) {
+            ChecklistItem item = items.get(i);
+            if (item.getOrdinalPosition() == null || item.getOrdinalPosition() != i) {
+                item.setOrdinalPosition(i);
+            }
+        }
+
+        int completedCount = (int) items.stream().filter(ChecklistItem::getIsCompleted).count();
+        StatusTransitionResult result = applyStatusTransitions(idea, completedCount, items.size());
+
+        // IDs neuer Elemente für die Antwort erzeugen; Zähler und Fortschritt pflegt der Trigger
+        em.flush();
+
+        int progressPercentage = items.isEmpty()
+                ? idea.getProgressPercentage()
+                : (int) Math.round((double) completedCount / items.size() * 100);
 
-        if (items.isEmpty()) {
-            // Keine Checklistenelemente, Fortschritt nicht ändern
-            return;
+        return new ChecklistBatchResponse(
+            items.stream().map(ChecklistItemDTO::fromEntity).collect(Collectors.toList()),
+            progressPercentage,
+            result.transitionedToInProgress,
+            result.allTodosCompleted
+        );
+    }
+
+    private ChecklistItem requireItem(Map<Long, ChecklistItem> itemsById, Long itemId) {
+        if (itemId == null) {
+            throw ApiException.badRequest("Checklistenelement-ID ist erforderlich");
+        }
+        ChecklistItem item = itemsById.get(itemId);
+        if (item == null) {
+            throw ApiException.notFound("Checklistenelement " + itemId + " nicht gefunden");
         }
+        return item;
+    }
 
-        long completedCount = items.stream()
-                .filter(ChecklistItem::getIsCompleted)
-                .count();
+    private int requirePosition(Integer position, int maxPosition) {
+        if (position == null || position < 0 || position > maxPosition) {
+            throw ApiException.badRequest("Position muss zwischen 0 und " + maxPosition + " liegen");
+        }
+        return position;
+    }
 
-        int progressPercentage = (int) Math.round((double) completedCount / items.size() * 100);
-        idea.setProgressPercentage(progressPercentage);
-        em.merge(idea);
+    private String validateTitle(String title) {
+        if (title == null || title.trim().isEmpty()) {
+            throw ApiException.badRequest("Checklistenelement-Titel ist erforderlich");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw ApiException.badRequest("Checklistenelement-Titel muss " + MAX_TITLE_LENGTH + " Zeichen oder weniger sein");
+        }
+        return title.trim();
     }
 
     /**
-     * Aktualisiert den Fortschritt und behandelt automatische Statusübergänge.
+     * Behandelt automatische Statusübergänge anhand der Checklisten-Zähler.
+     * Den Fortschritt selbst pflegt der Trigger auf checklist_items.
      * @return StatusTransitionResult mit Informationen über Statusänderungen
      */
-    private StatusTransitionResult updateIdeaProgressWithTransitions(Idea idea) {
-        List<ChecklistItem> items = em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
-                .setParameter("ideaId", idea.getId())
-                .getResultList();
-
-        if (items.isEmpty()) {
+    private StatusTransitionResult applyStatusTransitions(Idea idea, int completedCount, int totalCount) {
+        if (totalCount == 0) {
             return new StatusTransitionResult(false, false);
         }
 
-        long completedCount = items.stream()
-                .filter(ChecklistItem::getIsCompleted)
-                .count();
-
-        int progressPercentage = (int) Math.round((double) completedCount / items.size() * 100);
-        idea.setProgressPercentage(progressPercentage);
-
         boolean transitionedToInProgress = false;
-        boolean allTodosCompleted = false;
 
         // Automatischer Übergang: CONCEPT -> IN_PROGRESS wenn erstes Todo erledigt
         if (idea.getStatus() == IdeaStatus.CONCEPT && completedCount > 0) {
@@ -263,15 +353,20 @@ public class ChecklistService {
         }
 
         // Prüfen, ob alle Todos erledigt sind (für Frontend-Bestätigungsdialog)
-        if (completedCount == items.size() && !items.isEmpty()) {
-            allTodosCompleted = true;
-        }
-
-        em.merge(idea);
+        boolean allTodosCompleted = completedCount == totalCount;
 
         return new StatusTransitionResult(transitionedToInProgress, allTodosCompleted);
     }
 
+    /**
+     * Gleicht die Checklisten-Zähler aller Ideen mit den tatsächlichen Elementen ab.
+     * @return Anzahl der korrigierten Ideen
+     */
+    @Transactional
+    public int reconcileCounters() {
+        return em.createNativeQuery(ChecklistItem.RECONCILE_COUNTS_SQL).executeUpdate();
+    }
+
     /**
      * Ergebnis der Statusübergangsprüfung
      */
@@ -0,0 +1,329 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.dto.FileAttachmentDTO;
+import com.gfos.ideaboard.dto.UploadSessionDTO;
+import com.gfos.ideaboard.dto.UploadSessionRequest;
+import com.gfos.ideaboard.entity.Idea;
+import com.gfos.ideaboard.entity.UploadSession;
+import com.gfos.ideaboard.entity.User;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resumable chunked uploads: initiate a session, PUT numbered chunks (optionally with their SHA-256), then complete.
+ * Chunks are verified and kept on disk, so an interrupted upload only resends the missing chunks.
+ * On completion the chunks are concatenated channel to channel and handed to the attachment store.
+ */
+@ApplicationScoped
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    // Größere Dateien als beim einfachen Upload, da nie mehr als ein Puffer im Speicher liegt
+    public static final long MAX_UPLOAD_SIZE = 200L * 1024 * 1024; // 200MB
+    private static final int DEFAULT_CHUNK_SIZE = 5 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final long SESSION_TTL_HOURS = 24;
+    private static final String CHUNK_DIR = ".chunks";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private FileService fileService;
+
+    @Inject
+    private UploadChunkWriter chunkWriter;
+
+    /**
+     * Starts a chunked upload. The file type is checked against the extension up front,
+     * so uploads that would be rejected anyway are refused before any data is sent.
+     */
+    @Transactional
+    public UploadSessionDTO initiate(Long ideaId, UploadSessionRequest request, Long uploaderId) {
+        Idea idea = em.find(Idea.class, ideaId);
+        if (idea == null) {
+            throw ApiException.notFound("Idee nicht gefunden");
+        }
+        User uploader = em.find(User.class, uploaderId);
+        if (uploader == null) {
+            throw ApiException.notFound("Benutzer nicht gefunden");
+        }
+
+        if (request.getTotalSize() > MAX_UPLOAD_SIZE) {
+            throw ApiException.badRequest("Dateigröße übersteigt Maximum (200MB)");
+        }
+        String declaredType = MimeTypeSniffer.fromExtension(request.getFilename());
+        if (!FileService.isAllowedType(declaredType)) {
+            throw ApiException.badRequest("Dateityp nicht erlaubt: " + declaredType);
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw ApiException.badRequest("Teilgröße muss zwischen 256KB und 16MB liegen");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setIdea(idea);
+        session.setUploader(uploader);
+        session.setOriginalName(request.getFilename());
+        session.setTotalSize(request.getTotalSize());
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) ((request.getTotalSize() + chunkSize - 1) / chunkSize));
+        session.setExpiresAt(LocalDateTime.now().plusHours(SESSION_TTL_HOURS));
+        em.persist(session);
+
+        return UploadSessionDTO.fromEntity(session, List.of());
+    }
+
+    /**
+     * Returns the state of an upload, including the chunks already received (for resuming).
+     */
+    public UploadSessionDTO getSession(Long ideaId, Long uploadId, Long userId) {
+        UploadSession session = requireSession(ideaId, uploadId, userId, LockModeType.NONE);
+        return UploadSessionDTO.fromEntity(session, receivedChunks(uploadId));
+    }
+
+    /**
+     * Stores one chunk. The chunk must have exactly the expected size and, if a SHA-256 is given, match it;
+     * browsers outside a secure context cannot compute one. Sending a chunk again replaces it,
+     * so retries after a lost response are safe. The chunk is received and verified outside any transaction;
+     * only moving it into place runs in a short one in {@link UploadChunkWriter}.
+     */
+    public UploadSessionDTO putChunk(Long ideaId, Long uploadId, int index, String checksum,
+                                     InputStream content, Long userId) {
+        UploadSession session = requireSession(ideaId, uploadId, userId, LockModeType.NONE);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw ApiException.badRequest("Ungültige Teilnummer: " + index);
+        }
+        if (checksum != null && !checksum.matches("[0-9a-fA-F]{64}")) {
+            throw ApiException.badRequest("Ungültige SHA-256-Prüfsumme des Teils");
+        }
+
+        // Teil ohne Transaktion empfangen: langsame Clients belegen so weder Sperre noch Datenbankverbindung
+        Path chunkDir = chunkDirectory(uploadId);
+        Path tempFile = chunkDir.resolve(index + "." + UUID.randomUUID() + ".part");
+        long expectedSize = session.expectedChunkSize(index);
+        MessageDigest digest = FileService.newSha256();
+        try {
+            Files.createDirectories(chunkDir);
+            long size = FileService.writeStream(content, tempFile, digest, new byte[0], expectedSize,
+                    "Teil " + index + " ist größer als erwartet (" + expectedSize + " Bytes)");
+            if (size != expectedSize) {
+                throw ApiException.badRequest("Teil " + index + " ist unvollständig: erwartet " + expectedSize
+                        + " Bytes, erhalten " + size);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (checksum != null && !sha256.equalsIgnoreCase(checksum)) {
+                throw ApiException.badRequest("Prüfsumme von Teil " + index + " stimmt nicht überein");
+            }
+
+            return chunkWriter.commitChunk(uploadId, index, tempFile, chunkPath(uploadId, index), size, sha256,
+                    LocalDateTime.now().plusHours(SESSION_TTL_HOURS));
+        } catch (IOException e) {
+            fileService.deleteQuietly(tempFile);
+            throw ApiException.serverError("Fehler beim Speichern des Teils");
+        } catch (RuntimeException e) {
+            fileService.deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Assembles all chunks into one file and stores it as an attachment. The chunks are concatenated
+     * with FileChannel.transferTo and hashed with a fixed-size buffer, so memory use does not grow with the file.
+     */
+    @Transactional
+    public FileAttachmentDTO complete(Long ideaId, Long uploadId, Long userId) {
+        UploadSession session = requireSession(ideaId, uploadId, userId, LockModeType.PESSIMISTIC_WRITE);
+        long received = em.createNamedQuery("UploadChunk.countBySession", Long.class)
+                .setParameter("sessionId", uploadId)
+                .getSingleResult();
+        if (received < session.getChunkCount()) {
+            throw ApiException.badRequest("Es fehlen noch " + (session.getChunkCount() - received) + " Teile");
+        }
+
+        Path assembled = fileService.tempDirectory().resolve(UUID.randomUUID() + ".part");
+        byte[] header = new byte[MimeTypeSniffer.HEADER_LENGTH];
+        String sha256;
+        try {
+            long size = concatenate(uploadId, session.getChunkCount(), assembled);
+            if (size != session.getTotalSize()) {
+                throw ApiException.badRequest("Dateigröße stimmt nicht mit der angekündigten Größe überein");
+            }
+            sha256 = hash(assembled, header);
+        } catch (IOException e) {
+            fileService.deleteQuietly(assembled);
+            throw ApiException.serverError("Fehler beim Zusammensetzen der Datei");
+        } catch (RuntimeException e) {
+            fileService.deleteQuietly(assembled);
+            throw e;
+        }
+
+        FileAttachmentDTO attachment = fileService.storeFile(session.getIdea(), session.getUploader(),
+                session.getOriginalName(), assembled, session.getTotalSize(), sha256, header);
+
+        em.remove(session);
+        fileService.afterCommit(() -> deleteChunks(uploadId));
+        return attachment;
+    }
+
+    /**
+     * Aborts an upload and discards its chunks.
+     */
+    @Transactional
+    public void abort(Long ideaId, Long uploadId, Long userId) {
+        UploadSession session = requireSession(ideaId, uploadId, userId, LockModeType.PESSIMISTIC_WRITE);
+        em.remove(session);
+        fileService.afterCommit(() -> deleteChunks(uploadId));
+    }
+
+    /**
+     * Returns the ids of uploads that saw no chunk within their lifetime.
+     */
+    public List<Long> findExpiredIds(int limit) {
+        return em.createNamedQuery("UploadSession.findExpiredIds", Long.class)
+                .setParameter("now", LocalDateTime.now())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Deletes an expired upload and its chunks. Returns the number of bytes freed on disk.
+     */
+    @Transactional
+    public long discardExpired(Long uploadId) {
+        UploadSession session = em.find(UploadSession.class, uploadId, LockModeType.PESSIMISTIC_WRITE);
+        if (session == null || !session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return 0;
+        }
+        em.remove(session);
+        return deleteChunks(uploadId);
+    }
+
+    /**
+     * Deletes chunk directories without an upload session (e.g. left behind by a crash after commit)
+     * that were last modified before {@code cutoff}. Returns the number of bytes freed.
+     */
+    public long sweepOrphanedChunks(Instant cutoff) {
+        Path root = Paths.get(FileService.UPLOAD_DIR, CHUNK_DIR);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        long freed = 0;
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                String name = dir.getFileName().toString();
+                if (!name.matches("\\d+") || Files.getLastModifiedTime(dir).compareTo(FileTime.from(cutoff)) >= 0) {
+                    continue;
+                }
+                if (em.find(UploadSession.class, Long.valueOf(name)) == null) {
+                    freed += deleteChunks(Long.valueOf(name));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Teil-Verzeichnis {} konnte nicht gelesen werden", root, e);
+        }
+        return freed;
+    }
+
+    private UploadSession requireSession(Long ideaId, Long uploadId, Long userId, LockModeType lockMode) {
+        UploadSession session = em.find(UploadSession.class, uploadId, lockMode);
+        if (session == null || !session.getIdea().getId().equals(ideaId)) {
+            throw ApiException.notFound("Upload nicht gefunden");
+        }
+        if (!session.getUploader().getId().equals(userId)) {
+            throw ApiException.forbidden("Nur der Ersteller kann diesen Upload fortsetzen");
+        }
+        return session;
+    }
+
+    private List<Integer> receivedChunks(Long uploadId) {
+        return em.createNamedQuery("UploadChunk.findIndexesBySession", Integer.class)
+                .setParameter("sessionId", uploadId)
+                .getResultList();
+    }
+
+    private long concatenate(Long uploadId, int chunkCount, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < chunkCount; i++) {
+                try (FileChannel in = FileChannel.open(chunkPath(uploadId, i), StandardOpenOption.READ)) {
+                    long length = in.size();
+                    long position = 0;
+                    while (position < length) {
+                        position += in.transferTo(position, length - position, out);
+                    }
+                }
+            }
+            return out.size();
+        }
+    }
+
+    private String hash(Path file, byte[] header) throws IOException {
+        MessageDigest digest = FileService.newSha256();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+            boolean first = true;
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                if (first) {
+                    buffer.get(0, header, 0, Math.min(header.length, buffer.remaining()));
+                    first = false;
+                }
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private long deleteChunks(Long uploadId) {
+        Path dir = chunkDirectory(uploadId);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        long freed = 0;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                freed += Files.isRegularFile(path) ? Files.size(path) : 0;
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.warn("Teile des Uploads {} konnten nicht gelöscht werden", uploadId, e);
+        }
+        return freed;
+    }
+
+    private Path chunkDirectory(Long uploadId) {
+        return Paths.get(FileService.UPLOAD_DIR, CHUNK_DIR, uploadId.toString());
+    }
+
+    private Path chunkPath(Long uploadId, int index) {
+        return chunkDirectory(uploadId).resolve(index + ".chunk");
+    }
+}
@@ -9,7 +9,10 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -17,6 +20,7 @@ public class CommentService {
 
     private static final int MAX_COMMENT_LENGTH = 200;
     private static final int XP_FOR_COMMENT = 5;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
@@ -30,12 +34,87 @@ public class CommentService {
     @Inject
     private GamificationService gamificationService;
 
-    public List<CommentDTO> getCommentsByIdea(Long ideaId, Long currentUserId) {
-        List<Comment> comments = em.createNamedQuery("Comment.findByIdea", Comment.class)
+    /**
+     * Returns a page of comments, newest first. Without a cursor the newest comments are returned,
+     * otherwise the comments older than the cursor comment.
+     */
+    public List<CommentDTO> getCommentsByIdea(Long ideaId, Long currentUserId, int limit, Long beforeId) {
+        int pageSize = clampPageSize(limit);
+        List<Comment> comments;
+        if (beforeId == null) {
+            comments = em.createNamedQuery("Comment.findByIdea", Comment.class)
+                    .setParameter("ideaId", ideaId)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        } else {
+            Comment cursor = em.find(Comment.class, beforeId);
+            if (cursor == null || !cursor.getIdea().getId().equals(ideaId)) {
+                throw ApiException.badRequest("Ungültiger Kommentar-Cursor");
+            }
+            comments = em.createNamedQuery("Comment.findByIdeaBefore", Comment.class)
+                    .setParameter("ideaId", ideaId)
+                    .setParameter("createdAt", cursor.getCreatedAt())
+                    .setParameter("commentId", cursor.getId())
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        }
+        return toDTOs(comments, currentUserId);
+    }
+
+    /**
+     * Returns the comments created after the given comment, oldest first, for incremental refresh.
+     * A full page means there may be more: the caller continues from the last id it received.
+     */
+    public List<CommentDTO> getCommentsSince(Long ideaId, Long currentUserId, Long sinceId, int limit) {
+        List<Comment> comments = em.createNamedQuery("Comment.findByIdeaSince", Comment.class)
                 .setParameter("ideaId", ideaId)
+                .setParameter("commentId", sinceId)
+                .setMaxResults(clampPageSize(limit))
+                .getResultList();
+        return toDTOs(comments, currentUserId);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Converts a page of comments with a constant number of queries: one for the emoji histograms
+     * and one for the current user's reactions, regardless of the page size.
+     */
+    private List<CommentDTO> toDTOs(List<Comment> comments, Long currentUserId) {
+        if (comments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> commentIds = comments.stream()
+                .map(Comment::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<CommentDTO.ReactionDTO>> reactionsByComment = new HashMap<>();
+        List<Object[]> counts = em.createNamedQuery("CommentReactionCount.findByComments", Object[].class)
+                .setParameter("commentIds", commentIds)
                 .getResultList();
+        for (Object[] row : counts) {
+            reactionsByComment.computeIfAbsent((Long) row[0], k -> new ArrayList<>())
+                    .add(new CommentDTO.ReactionDTO((String) row[1], ((Number) row[2]).intValue()));
+        }
+
+        Map<Long, List<String>> userEmojisByComment = new HashMap<>();
+        if (currentUserId != null) {
+            List<Object[]> userReactions = em.createNamedQuery("CommentReaction.findEmojisByUserAndComments", Object[].class)
+                    .setParameter("userId", currentUserId)
+                    .setParameter("commentIds", commentIds)
+                    .getResultList();
+            for (Object[] row : userReactions) {
+                userEmojisByComment.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
         return comments.stream()
-                .map(comment -> CommentDTO.fromEntity(comment, currentUserId))
+                .map(comment -> CommentDTO.fromEntity(comment,
+                        reactionsByComment.get(comment.getId()),
+                        userEmojisByComment.get(comment.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -75,7 +154,7 @@ public class CommentService {
             notificationService.notifyComment(idea, author, content);
         }
 
-        return CommentDTO.fromEntity(comment, authorId);
+        return CommentDTO.fromEntity(comment, new ArrayList<>(), new ArrayList<>());
     }
 
     @Transactional
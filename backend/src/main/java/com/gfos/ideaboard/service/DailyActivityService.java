@@ -0,0 +1,199 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.dto.DailyActivityDTO;
+import com.gfos.ideaboard.entity.DailyActivity;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maintains the daily activity rollups and serves time series from them. A scheduled job rolls up the
+ * current day incrementally; an empty or lagging table is backfilled in chunks of days that run in parallel,
+ * each in its own transaction. Charts never read the fact tables.
+ */
+@ApplicationScoped
+public class DailyActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyActivityService.class);
+
+    private static final long REFRESH_INTERVAL_MINUTES = 1;
+    private static final int CHUNK_DAYS = 31;
+    // Gleichzeitige Abschnitte beim Nachberechnen, begrenzt die belegten Datenbankverbindungen
+    private static final int BACKFILL_PARALLELISM = 4;
+    public static final int MAX_RANGE_DAYS = 3660;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private DailyActivityWriter writer;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private ScheduledFuture<?> refreshTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        // Erster Lauf sofort, damit eine leere Tabelle nach der Migration gleich befüllt wird
+        refreshTask = scheduler.scheduleWithFixedDelay(this::refreshSafely,
+                0, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    /**
+     * Rolls up every day from the last rolled-up day (at the latest yesterday) through today.
+     * On an empty table, starts at the day of the oldest activity. Returns the number of days written.
+     */
+    public int refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = em.createNamedQuery("DailyActivity.findLastDay", LocalDate.class).getSingleResult();
+        LocalDate from;
+        if (lastDay == null) {
+            Object firstDay = em.createNativeQuery(DailyActivity.FIRST_ACTIVITY_DAY_SQL).getSingleResult();
+            from = firstDay != null ? toLocalDate(firstDay) : today;
+        } else {
+            // Gestern erneut berechnen: kurz vor Mitternacht begonnene Transaktionen können noch Zeilen liefern
+            LocalDate yesterday = today.minusDays(1);
+            from = lastDay.isBefore(yesterday) ? lastDay : yesterday;
+        }
+        return backfill(from, today.plusDays(1));
+    }
+
+    /**
+     * Recomputes the days in [from, toExclusive) in parallel chunks. If a chunk fails, the rollups from that
+     * chunk on are removed, so the next refresh resumes there instead of leaving a gap.
+     */
+    public int backfill(LocalDate from, LocalDate toExclusive) {
+        if (!from.isBefore(toExclusive)) {
+            return 0;
+        }
+        if (ChronoUnit.DAYS.between(from, toExclusive) <= CHUNK_DAYS) {
+            return writer.rollUp(from, toExclusive);
+        }
+
+        Semaphore slots = new Semaphore(BACKFILL_PARALLELISM);
+        List<LocalDate> chunkStarts = new ArrayList<>();
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        for (LocalDate start = from; start.isBefore(toExclusive); start = start.plusDays(CHUNK_DAYS)) {
+            LocalDate chunkStart = start;
+            LocalDate next = start.plusDays(CHUNK_DAYS);
+            LocalDate chunkEnd = next.isBefore(toExclusive) ? next : toExclusive;
+            slots.acquireUninterruptibly();
+            try {
+                chunks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return writer.rollUp(chunkStart, chunkEnd);
+                    } finally {
+                        slots.release();
+                    }
+                }, executor));
+                chunkStarts.add(chunkStart);
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                chunks.add(CompletableFuture.failedFuture(e));
+                chunkStarts.add(chunkStart);
+                break;
+            }
+        }
+
+        int days = 0;
+        LocalDate firstFailed = null;
+        RuntimeException failure = null;
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                days += chunks.get(i).join();
+            } catch (CompletionException e) {
+                if (firstFailed == null) {
+                    firstFailed = chunkStarts.get(i);
+                    failure = e;
+                }
+            }
+        }
+        if (firstFailed != null) {
+            writer.deleteFrom(firstFailed);
+            throw failure;
+        }
+
+        logger.info("Tagesaktivität vom {} bis {} verdichtet ({} Tage)", from, toExclusive.minusDays(1), days);
+        return days;
+    }
+
+    /**
+     * Returns one entry per day in [from, to], days without a rollup as zeros.
+     */
+    public List<DailyActivityDTO> getTimeseries(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw ApiException.badRequest("Startdatum liegt nach dem Enddatum");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw ApiException.badRequest("Zeitraum darf höchstens " + MAX_RANGE_DAYS + " Tage umfassen");
+        }
+
+        Map<LocalDate, DailyActivity> rollups = new HashMap<>();
+        for (DailyActivity activity : findRange(from, to)) {
+            rollups.put(activity.getDay(), activity);
+        }
+
+        List<DailyActivityDTO> series = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyActivity activity = rollups.get(day);
+            series.add(activity != null ? DailyActivityDTO.fromEntity(activity) : DailyActivityDTO.empty(day));
+        }
+        return series;
+    }
+
+    /**
+     * Returns the rollup rows in [from, to] ordered by day; days without a row are missing.
+     */
+    public List<DailyActivity> findRange(LocalDate from, LocalDate to) {
+        return em.createNamedQuery("DailyActivity.findRange", DailyActivity.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.error("Verdichtung der Tagesaktivität fehlgeschlagen", e);
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        // Native Abfragen liefern je nach Treiber Date oder LocalDate
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
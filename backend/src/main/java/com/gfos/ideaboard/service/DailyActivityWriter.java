@@ -0,0 +1,40 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.entity.DailyActivity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Rolls up one range of days in its own transaction, so backfill chunks can run and commit independently.
+ */
+@ApplicationScoped
+public class DailyActivityWriter {
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    /**
+     * Recomputes the days in [from, toExclusive). Returns the number of days written.
+     */
+    @Transactional
+    public int rollUp(LocalDate from, LocalDate toExclusive) {
+        return em.createNativeQuery(DailyActivity.ROLL_UP_SQL)
+                .setParameter(1, Timestamp.valueOf(from.atStartOfDay()))
+                .setParameter(2, Timestamp.valueOf(toExclusive.atStartOfDay()))
+                .executeUpdate();
+    }
+
+    /**
+     * Removes the rollups from the given day on, so they are recomputed by the next refresh.
+     */
+    @Transactional
+    public int deleteFrom(LocalDate day) {
+        return em.createQuery("DELETE FROM DailyActivity d WHERE d.day >= :day")
+                .setParameter("day", day)
+                .executeUpdate();
+    }
+}
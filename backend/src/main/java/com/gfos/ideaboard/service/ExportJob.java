@@ -0,0 +1,120 @@
+package com.gfos.ideaboard.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * State of one asynchronous export. Written by the worker thread, read by status requests.
+ */
+public class ExportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final ExportType type;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalRows;
+    private volatile long processedRows;
+    private volatile LocalDateTime completedAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile String error;
+    private volatile Path file;
+
+    ExportJob(ExportType type) {
+        this.type = type;
+    }
+
+    void start(long totalRows) {
+        this.totalRows = totalRows;
+        this.status = Status.RUNNING;
+    }
+
+    void progress(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    void complete(Path file, LocalDateTime expiresAt) {
+        this.file = file;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error, LocalDateTime expiresAt) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * Whether a new request for the same export can be answered by this job: it is still queued or running,
+     * or its artifact is still within its time to live.
+     */
+    boolean isReusable(LocalDateTime now) {
+        return status == Status.QUEUED || status == Status.RUNNING
+                || (status == Status.COMPLETED && now.isBefore(expiresAt));
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    /**
+     * Progress in percent; 100 only once the artifact is complete.
+     */
+    public int getProgress() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        if (totalRows <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, processedRows * 100 / totalRows);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ExportType getType() {
+        return type;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,201 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs exports in the background on a small, bounded worker pool and keeps the finished files on disk
+ * for a limited time. A request for an export that is already queued, running or finished within its
+ * time to live is answered with that job instead of starting another one.
+ */
+@ApplicationScoped
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final String EXPORT_DIR = "exports";
+    private static final int WORKER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 20;
+    private static final Duration ARTIFACT_TTL = Duration.ofMinutes(15);
+    private static final long CLEANUP_INTERVAL_MINUTES = 1;
+
+    @Inject
+    private ExportService exportService;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledFuture<?> cleanupTask;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Jüngster Auftrag je Export, für die Wiederverwendung gleicher Anfragen
+    private final Map<ExportType, ExportJob> latest = new ConcurrentHashMap<>();
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        // Aufträge leben nur im Speicher: Dateien aus einem früheren Lauf sind verwaist
+        deleteAllArtifacts();
+        cleanupTask = scheduler.scheduleWithFixedDelay(this::cleanUpSafely,
+                CLEANUP_INTERVAL_MINUTES, CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues an export, or returns the job of an identical export that is pending or still fresh.
+     * Throws 503 if the queue is full.
+     */
+    public ExportJob submit(ExportType type) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return latest.compute(type, (t, current) -> {
+                if (current != null && current.isReusable(now)) {
+                    return current;
+                }
+                ExportJob job = new ExportJob(t);
+                executor.execute(() -> run(job));
+                jobs.put(job.getId(), job);
+                return job;
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ApiException("Zu viele Exporte in Bearbeitung, bitte später erneut versuchen",
+                    Response.Status.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    public ExportJob getJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw ApiException.notFound("Export nicht gefunden");
+        }
+        return job;
+    }
+
+    /**
+     * Returns the file of a finished export. Throws 409 while the export is still running and 404 once it expired.
+     */
+    public Path getArtifact(String jobId) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() == ExportJob.Status.FAILED) {
+            throw ApiException.conflict("Export ist fehlgeschlagen");
+        }
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw ApiException.conflict("Export ist noch nicht fertig");
+        }
+        if (job.isExpired(LocalDateTime.now()) || !Files.isRegularFile(job.getFile())) {
+            throw ApiException.notFound("Export ist abgelaufen");
+        }
+        return job.getFile();
+    }
+
+    private void run(ExportJob job) {
+        ExportType type = job.getType();
+        Path directory = Paths.get(FileService.UPLOAD_DIR, EXPORT_DIR);
+        Path partial = directory.resolve(job.getId() + ".part");
+        try {
+            job.start(exportService.countRows(type));
+            Files.createDirectories(directory);
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                switch (type) {
+                    case IDEAS_CSV -> exportService.writeIdeasCsv(output, job::progress);
+                    case IDEAS_PDF -> exportService.writeIdeasPdf(output, job::progress);
+                    case IDEAS_XLSX -> exportService.writeIdeasXlsx(output, job::progress);
+                    case USERS_CSV -> exportService.writeUsersCsv(output, job::progress);
+                    case USERS_XLSX -> exportService.writeUsersXlsx(output, job::progress);
+                    case STATISTICS_CSV -> output.write(exportService.exportStatisticsToCsv());
+                    case STATISTICS_PDF -> exportService.writeStatisticsPdf(output);
+                    case STATISTICS_XLSX -> exportService.writeStatisticsXlsx(output);
+                }
+            }
+            Path target = directory.resolve(job.getId() + "." + type.getFormat());
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(target, LocalDateTime.now().plus(ARTIFACT_TTL));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Export {} ({}) fehlgeschlagen", job.getId(), type, e);
+            deleteQuietly(partial);
+            job.fail("Export fehlgeschlagen", LocalDateTime.now().plus(ARTIFACT_TTL));
+        }
+    }
+
+    private void cleanUpSafely() {
+        try {
+            cleanUp();
+        } catch (RuntimeException e) {
+            logger.error("Aufräumen abgelaufener Exporte fehlgeschlagen", e);
+        }
+    }
+
+    private void cleanUp() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            if (!job.isExpired(now)) {
+                return false;
+            }
+            latest.remove(job.getType(), job);
+            if (job.getFile() != null) {
+                deleteQuietly(job.getFile());
+            }
+            return true;
+        });
+    }
+
+    private void deleteAllArtifacts() {
+        Path directory = Paths.get(FileService.UPLOAD_DIR, EXPORT_DIR);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Verzeichnis {} konnte nicht geleert werden", directory, e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Exportdatei {} konnte nicht gelöscht werden", path, e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.gfos.ideaboard.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.gfos.ideaboard.entity.Idea;
 import com.gfos.ideaboard.entity.IdeaStatus;
 import com.gfos.ideaboard.entity.User;
@@ -7,6 +9,7 @@ import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -16,15 +19,27 @@ import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import java.io.ByteArrayOutputStream;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.config.ResultType;
+import org.eclipse.persistence.queries.CursoredStream;
 
 @ApplicationScoped
 public class ExportService {
@@ -32,110 +47,230 @@ public class ExportService {
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    @Inject
+    private StatisticsService statisticsService;
+
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // Zeilen pro Datenbank-Roundtrip und pro Abkoppeln aus dem Persistenzkontext
+    private static final int CURSOR_CHUNK_SIZE = 500;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Jüngere Änderungen erst beim nächsten Abruf liefern, damit noch offene Transaktionen nicht übersprungen werden
+    private static final int CHANGE_FEED_SETTLE_SECONDS = 60;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    /**
+     * Writes all ideas as CSV to the given stream. Rows are read through a forward-only database cursor with a
+     * fixed fetch size and written through a buffered UTF-8 writer, so memory use does not grow with the table.
+     * Must run in a transaction: the PostgreSQL driver only honours the fetch size with auto-commit off.
+     */
+    @Transactional
+    public void writeIdeasCsv(OutputStream output) throws IOException {
+        writeIdeasCsv(output, rows -> { });
+    }
 
-    public byte[] exportIdeasToCsv() {
-        List<Idea> ideas = em.createQuery("SELECT i FROM Idea i ORDER BY i.createdAt DESC", Idea.class)
-                .getResultList();
+    /**
+     * Like {@link #writeIdeasCsv(OutputStream)}, reporting the number of rows written so far to {@code progress}.
+     */
+    @Transactional
+    public void writeIdeasCsv(OutputStream output, IntConsumer progress) throws IOException {
+        Query query = ideasExportQuery();
+        BufferedWriter csv = csvWriter(output);
+        csv.write("ID,Titel,Beschreibung,Kategorie,Status,Fortschritt,Autor,Likes,Kommentare,Erstellt am\n");
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Titel,Beschreibung,Kategorie,Status,Fortschritt,Autor,Likes,Kommentare,Erstellt am\n");
-
-        for (Idea idea : ideas) {
-            csv.append(idea.getId()).append(",");
-            csv.append(escapeCsv(idea.getTitle())).append(",");
-            csv.append(escapeCsv(idea.getDescription())).append(",");
-            csv.append(escapeCsv(idea.getCategory())).append(",");
-            csv.append(idea.getStatus().name()).append(",");
-            csv.append(idea.getProgressPercentage()).append("%,");
-            csv.append(escapeCsv(idea.getAuthor().getUsername())).append(",");
-            csv.append(idea.getLikeCount()).append(",");
-            csv.append(idea.getCommentCount()).append(",");
-            csv.append(idea.getCreatedAt().format(DATE_FORMAT)).append("\n");
+        CursoredStream cursor = openCursor(query);
+        try {
+            int rows = 0;
+            while (cursor.hasNext()) {
+                Object[] row = (Object[]) cursor.next();
+                csv.write(String.valueOf(row[0]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[1]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[2]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[3]));
+                csv.write(',');
+                csv.write(((IdeaStatus) row[4]).name());
+                csv.write(',');
+                csv.write(row[5] + "%");
+                csv.write(',');
+                csv.write(escapeCsv((String) row[6]));
+                csv.write(',');
+                csv.write(String.valueOf(row[7]));
+                csv.write(',');
+                csv.write(String.valueOf(row[8]));
+                csv.write(',');
+                csv.write(((LocalDateTime) row[9]).format(DATE_FORMAT));
+                csv.write('\n');
+                if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                    cursor.releasePrevious();
+                    progress.accept(rows);
+                }
+            }
+            progress.accept(rows);
+        } finally {
+            cursor.close();
         }
-
-        return csv.toString().getBytes();
+        csv.flush();
     }
 
-    public byte[] exportStatisticsToCsv() {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Metrik,Wert\n");
-
-        // Gesamtzahl Ideen
-        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Ideen,").append(totalIdeas).append("\n");
+    /**
+     * Writes all ideas as XLSX workbook to the given stream, row by row from the export cursor.
+     */
+    @Transactional
+    public void writeIdeasXlsx(OutputStream output) throws IOException {
+        writeIdeasXlsx(output, rows -> { });
+    }
 
-        // Ideen nach Status
-        for (IdeaStatus status : IdeaStatus.values()) {
-            Long count = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                    .setParameter("status", status)
-                    .getSingleResult();
-            csv.append("Ideen - ").append(status.name()).append(",").append(count).append("\n");
+    /**
+     * Like {@link #writeIdeasXlsx(OutputStream)}, reporting the number of rows written so far to {@code progress}.
+     */
+    @Transactional
+    public void writeIdeasXlsx(OutputStream output, IntConsumer progress) throws IOException {
+        try (XlsxWriter xlsx = new XlsxWriter("Ideen",
+                "ID", "Titel", "Beschreibung", "Kategorie", "Status", "Fortschritt (%)", "Autor", "Likes", "Kommentare", "Erstellt am")) {
+            CursoredStream cursor = openCursor(ideasExportQuery());
+            try {
+                int rows = 0;
+                while (cursor.hasNext()) {
+                    Object[] row = (Object[]) cursor.next();
+                    xlsx.row()
+                            .number((Number) row[0])
+                            .text((String) row[1])
+                            .text((String) row[2])
+                            .text((String) row[3])
+                            .text(((IdeaStatus) row[4]).name())
+                            .number((Number) row[5])
+                            .text((String) row[6])
+                            .number((Number) row[7])
+                            .number((Number) row[8])
+                            .date((LocalDateTime) row[9]);
+                    if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                        cursor.releasePrevious();
+                        progress.accept(rows);
+                    }
+                }
+                progress.accept(rows);
+            } finally {
+                cursor.close();
+            }
+            xlsx.write(output);
         }
+    }
 
-        // Gesamtzahl Benutzer
-        Long totalUsers = em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Benutzer,").append(totalUsers).append("\n");
+    /**
+     * Writes all users with their activity counts as XLSX workbook to the given stream.
+     */
+    @Transactional
+    public void writeUsersXlsx(OutputStream output) throws IOException {
+        writeUsersXlsx(output, rows -> { });
+    }
 
-        // Gesamtzahl Likes
-        Long totalLikes = em.createQuery("SELECT COUNT(l) FROM Like l", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Likes,").append(totalLikes).append("\n");
+    /**
+     * Like {@link #writeUsersXlsx(OutputStream)}, reporting the number of rows written so far to {@code progress}.
+     */
+    @Transactional
+    public void writeUsersXlsx(OutputStream output, IntConsumer progress) throws IOException {
+        try (XlsxWriter xlsx = new XlsxWriter("Benutzer",
+                "ID", "Benutzername", "E-Mail", "Vorname", "Nachname", "Rolle", "XP-Punkte", "Level",
+                "Anzahl Ideen", "Vergebene Likes", "Kommentare", "Aktiv", "Erstellt am")) {
+            CursoredStream cursor = openCursor(usersExportQuery());
+            try {
+                int rows = 0;
+                while (cursor.hasNext()) {
+                    Object[] row = (Object[]) cursor.next();
+                    xlsx.row()
+                            .number((Number) row[0])
+                            .text((String) row[1])
+                            .text((String) row[2])
+                            .text((String) row[3])
+                            .text((String) row[4])
+                            .text(String.valueOf(row[5]))
+                            .number((Number) row[6])
+                            .number((Number) row[7])
+                            .number((Number) row[8])
+                            .number((Number) row[9])
+                            .number((Number) row[10])
+                            .bool((Boolean) row[11])
+                            .date(toLocalDateTime(row[12]));
+                    if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                        cursor.releasePrevious();
+                        progress.accept(rows);
+                    }
+                }
+                progress.accept(rows);
+            } finally {
+                cursor.close();
+            }
+            xlsx.write(output);
+        }
+    }
 
-        // Gesamtzahl Kommentare
-        Long totalComments = em.createQuery("SELECT COUNT(c) FROM Comment c", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Kommentare,").append(totalComments).append("\n");
+    /**
+     * Writes the statistics snapshot as XLSX workbook to the given stream.
+     */
+    public void writeStatisticsXlsx(OutputStream output) throws IOException {
+        StatisticsSnapshot stats = statisticsService.getSnapshot();
+        try (XlsxWriter xlsx = new XlsxWriter("Statistik", "Metrik", "Wert")) {
+            xlsx.row().text("Gesamtzahl Ideen").number(stats.getTotalIdeas());
+            for (Map.Entry<IdeaStatus, Long> entry : stats.getIdeasByStatus().entrySet()) {
+                xlsx.row().text("Ideen - " + entry.getKey().name()).number(entry.getValue());
+            }
+            xlsx.row().text("Gesamtzahl Benutzer").number(stats.getTotalUsers());
+            xlsx.row().text("Gesamtzahl Likes").number(stats.getTotalLikes());
+            xlsx.row().text("Gesamtzahl Kommentare").number(stats.getTotalComments());
+            for (Map.Entry<String, Long> entry : stats.getIdeasByCategory().entrySet()) {
+                xlsx.row().text("Kategorie - " + entry.getKey()).number(entry.getValue());
+            }
+            xlsx.write(output);
+        }
+    }
 
-        // Ideen nach Kategorie
-        @SuppressWarnings("unchecked")
-        List<Object[]> categoryStats = em.createQuery(
-                "SELECT i.category, COUNT(i) FROM Idea i GROUP BY i.category ORDER BY COUNT(i) DESC")
-                .getResultList();
-        for (Object[] row : categoryStats) {
-            csv.append("Kategorie - ").append(row[0]).append(",").append(row[1]).append("\n");
+    public byte[] exportStatisticsToCsv() {
+        StatisticsSnapshot stats = statisticsService.getSnapshot();
+        StringBuilder csv = new StringBuilder();
+        csv.append("Metrik,Wert\n");
+        csv.append("Gesamtzahl Ideen,").append(stats.getTotalIdeas()).append("\n");
+        for (Map.Entry<IdeaStatus, Long> entry : stats.getIdeasByStatus().entrySet()) {
+            csv.append("Ideen - ").append(entry.getKey().name()).append(",").append(entry.getValue()).append("\n");
+        }
+        csv.append("Gesamtzahl Benutzer,").append(stats.getTotalUsers()).append("\n");
+        csv.append("Gesamtzahl Likes,").append(stats.getTotalLikes()).append("\n");
+        csv.append("Gesamtzahl Kommentare,").append(stats.getTotalComments()).append("\n");
+        for (Map.Entry<String, Long> entry : stats.getIdeasByCategory().entrySet()) {
+            csv.append("Kategorie - ").append(entry.getKey()).append(",").append(entry.getValue()).append("\n");
         }
 
         return csv.toString().getBytes();
     }
 
-    public byte[] exportStatisticsToPdf() throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document document = new Document(pdf);
+    /**
+     * Writes the statistics report as PDF to the given stream. All figures come from one statistics snapshot
+     * and the fonts are created once per document.
+     */
+    public void writeStatisticsPdf(OutputStream output) throws IOException {
+        StatisticsSnapshot stats = statisticsService.getSnapshot();
+        @SuppressWarnings("unchecked")
+        List<Object[]> topIdeas = em.createQuery(
+                "SELECT i.title, a.username, i.likeCount FROM Idea i JOIN i.author a ORDER BY i.likeCount DESC")
+                .setMaxResults(5)
+                .getResultList();
 
+        Document document = openPdf(output);
         PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
         PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-
-        // Titel
-        Paragraph title = new Paragraph("GFOS IdeaBoard - Statistikbericht")
-                .setFont(boldFont)
-                .setFontSize(20)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20);
-        document.add(title);
-
-        // Generierungsdatum
-        Paragraph date = new Paragraph("Erstellt: " + LocalDateTime.now().format(DATE_FORMAT))
-                .setFont(regularFont)
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setMarginBottom(20);
-        document.add(date);
+        addReportTitle(document, "GFOS IdeaBoard - Statistikbericht", boldFont, regularFont);
 
         // Übersichtsbereich
         document.add(new Paragraph("Übersicht").setFont(boldFont).setFontSize(14).setMarginTop(10));
 
-        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
-        Long totalUsers = em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
-        Long totalLikes = em.createQuery("SELECT COUNT(l) FROM Like l", Long.class).getSingleResult();
-        Long totalComments = em.createQuery("SELECT COUNT(c) FROM Comment c", Long.class).getSingleResult();
-
         Table overviewTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
                 .setWidth(UnitValue.createPercentValue(100));
-        addTableRow(overviewTable, "Gesamtzahl Ideen", String.valueOf(totalIdeas));
-        addTableRow(overviewTable, "Gesamtzahl Benutzer", String.valueOf(totalUsers));
-        addTableRow(overviewTable, "Gesamtzahl Likes", String.valueOf(totalLikes));
-        addTableRow(overviewTable, "Gesamtzahl Kommentare", String.valueOf(totalComments));
+        addTableRow(overviewTable, regularFont, "Gesamtzahl Ideen", String.valueOf(stats.getTotalIdeas()));
+        addTableRow(overviewTable, regularFont, "Gesamtzahl Benutzer", String.valueOf(stats.getTotalUsers()));
+        addTableRow(overviewTable, regularFont, "Gesamtzahl Likes", String.valueOf(stats.getTotalLikes()));
+        addTableRow(overviewTable, regularFont, "Gesamtzahl Kommentare", String.valueOf(stats.getTotalComments()));
         document.add(overviewTable);
 
         // Ideen nach Status
@@ -143,85 +278,206 @@ public class ExportService {
 
         Table statusTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}))
                 .setWidth(UnitValue.createPercentValue(100));
-        addTableHeader(statusTable, "Status", "Anzahl");
-
-        for (IdeaStatus status : IdeaStatus.values()) {
-            Long count = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                    .setParameter("status", status)
-                    .getSingleResult();
-            addTableRow(statusTable, status.name(), String.valueOf(count));
+        addTableHeader(statusTable, boldFont, "Status", "Anzahl");
+        for (Map.Entry<IdeaStatus, Long> entry : stats.getIdeasByStatus().entrySet()) {
+            addTableRow(statusTable, regularFont, entry.getKey().name(), String.valueOf(entry.getValue()));
         }
         document.add(statusTable);
 
         // Ideen nach Kategorie
         document.add(new Paragraph("Ideen nach Kategorie").setFont(boldFont).setFontSize(14).setMarginTop(20));
 
-        @SuppressWarnings("unchecked")
-        List<Object[]> categoryStats = em.createQuery(
-                "SELECT i.category, COUNT(i) FROM Idea i GROUP BY i.category ORDER BY COUNT(i) DESC")
-                .getResultList();
-
         Table categoryTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}))
                 .setWidth(UnitValue.createPercentValue(100));
-        addTableHeader(categoryTable, "Kategorie", "Anzahl");
-
-        for (Object[] row : categoryStats) {
-            addTableRow(categoryTable, String.valueOf(row[0]), String.valueOf(row[1]));
+        addTableHeader(categoryTable, boldFont, "Kategorie", "Anzahl");
+        for (Map.Entry<String, Long> entry : stats.getIdeasByCategory().entrySet()) {
+            addTableRow(categoryTable, regularFont, String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
         }
         document.add(categoryTable);
 
         // Top-Ideen
         document.add(new Paragraph("Top 5 Ideen nach Likes").setFont(boldFont).setFontSize(14).setMarginTop(20));
 
-        List<Idea> topIdeas = em.createQuery(
-                "SELECT i FROM Idea i ORDER BY i.likeCount DESC", Idea.class)
-                .setMaxResults(5)
-                .getResultList();
-
         Table topIdeasTable = new Table(UnitValue.createPercentArray(new float[]{50, 25, 25}))
                 .setWidth(UnitValue.createPercentValue(100));
-        addTableHeader(topIdeasTable, "Titel", "Autor", "Likes");
-
-        for (Idea idea : topIdeas) {
-            addTableRow(topIdeasTable,
-                    truncate(idea.getTitle(), 40),
-                    idea.getAuthor().getUsername(),
-                    String.valueOf(idea.getLikeCount()));
+        addTableHeader(topIdeasTable, boldFont, "Titel", "Autor", "Likes");
+        for (Object[] row : topIdeas) {
+            addTableRow(topIdeasTable, regularFont, truncate((String) row[0], 40), (String) row[1], String.valueOf(row[2]));
         }
         document.add(topIdeasTable);
 
         document.close();
-        return baos.toByteArray();
     }
 
-    private void addTableHeader(Table table, String... headers) {
+    /**
+     * Writes a report with one section per idea as PDF to the given stream. Ideas are read through a database
+     * cursor and every finished page is flushed to the stream, so memory use stays bounded for thousands of ideas.
+     */
+    @Transactional
+    public void writeIdeasPdf(OutputStream output) throws IOException {
+        writeIdeasPdf(output, rows -> { });
+    }
+
+    /**
+     * Like {@link #writeIdeasPdf(OutputStream)}, reporting the number of rows written so far to {@code progress}.
+     */
+    @Transactional
+    public void writeIdeasPdf(OutputStream output, IntConsumer progress) throws IOException {
+        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
+        Query query = em.createQuery(
+                "SELECT i.id, i.title, i.description, i.category, i.status, i.progressPercentage, a.username, " +
+                "i.likeCount, i.commentCount, i.completedItems, i.totalItems, i.createdAt " +
+                "FROM Idea i JOIN i.author a ORDER BY i.createdAt DESC")
+                .setHint(QueryHints.READ_ONLY, HintValues.TRUE);
+
+        Document document = openPdf(output);
+        PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        addReportTitle(document, "GFOS IdeaBoard - Ideenbericht", boldFont, regularFont);
+        document.add(new Paragraph(totalIdeas + " Ideen").setFont(regularFont).setFontSize(12).setMarginBottom(10));
+
+        CursoredStream cursor = openCursor(query);
         try {
-            PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-            for (String header : headers) {
-                Cell cell = new Cell()
-                        .add(new Paragraph(header).setFont(boldFont))
-                        .setBackgroundColor(ColorConstants.LIGHT_GRAY);
-                table.addHeaderCell(cell);
+            int rows = 0;
+            while (cursor.hasNext()) {
+                Object[] row = (Object[]) cursor.next();
+                document.add(new Paragraph("#" + row[0] + " " + row[1])
+                        .setFont(boldFont)
+                        .setFontSize(13)
+                        .setMarginTop(16)
+                        .setKeepWithNext(true));
+
+                Table details = new Table(UnitValue.createPercentArray(new float[]{20, 30, 20, 30}))
+                        .setWidth(UnitValue.createPercentValue(100))
+                        .setFontSize(9);
+                addTableRow(details, regularFont,
+                        "Kategorie", (String) row[3], "Autor", (String) row[6]);
+                addTableRow(details, regularFont,
+                        "Status", ((IdeaStatus) row[4]).name(), "Fortschritt", row[5] + "%");
+                addTableRow(details, regularFont,
+                        "Likes", String.valueOf(row[7]), "Kommentare", String.valueOf(row[8]));
+                addTableRow(details, regularFont,
+                        "Checkliste", row[9] + "/" + row[10], "Erstellt", ((LocalDateTime) row[11]).format(DATE_FORMAT));
+                document.add(details);
+
+                document.add(new Paragraph((String) row[2]).setFont(regularFont).setFontSize(10).setMarginTop(6));
+
+                if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                    cursor.releasePrevious();
+                    progress.accept(rows);
+                }
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Fehler beim Erstellen der Schriftart", e);
+            progress.accept(rows);
+        } finally {
+            cursor.close();
         }
+        document.close();
     }
 
-    private void addTableRow(Table table, String... values) {
+    /**
+     * Writes all ideas changed or deleted after the given watermark as NDJSON, one object per line in change order.
+     * Every line carries the watermark to resume after it; a final "end" line carries the watermark for the next sync.
+     */
+    @Transactional
+    public void writeIdeaChanges(OutputStream output, Watermark since) throws IOException {
+        Query query = em.createNativeQuery(Idea.CHANGES_SINCE_SQL)
+                .setParameter(1, Timestamp.valueOf(since.getChangedAt()))
+                .setParameter(2, since.getId())
+                .setParameter(3, CHANGE_FEED_SETTLE_SECONDS)
+                .setHint(QueryHints.RESULT_TYPE, ResultType.Array);
+        JsonGenerator json = ndjsonWriter(output);
+
+        Watermark watermark = since;
+        CursoredStream cursor = openCursor(query);
         try {
-            PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-            for (String value : values) {
-                table.addCell(new Cell().add(new Paragraph(value).setFont(regularFont)));
+            int rows = 0;
+            while (cursor.hasNext()) {
+                Object[] row = (Object[]) cursor.next();
+                LocalDateTime changedAt = toLocalDateTime(row[0]);
+                long id = ((Number) row[1]).longValue();
+                watermark = new Watermark(changedAt, id);
+
+                json.writeStartObject();
+                json.writeStringField("op", Boolean.TRUE.equals(row[2]) ? "delete" : "upsert");
+                json.writeNumberField("id", id);
+                json.writeStringField("changedAt", changedAt.toString());
+                if (!Boolean.TRUE.equals(row[2])) {
+                    json.writeStringField("title", (String) row[3]);
+                    json.writeStringField("description", (String) row[4]);
+                    json.writeStringField("category", (String) row[5]);
+                    json.writeStringField("status", (String) row[6]);
+                    json.writeNumberField("progressPercentage", ((Number) row[7]).intValue());
+                    json.writeStringField("author", (String) row[8]);
+                    json.writeNumberField("likeCount", ((Number) row[9]).intValue());
+                    json.writeNumberField("commentCount", ((Number) row[10]).intValue());
+                    json.writeStringField("createdAt", toLocalDateTime(row[11]).toString());
+                }
+                json.writeStringField("watermark", watermark.toToken());
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                    cursor.releasePrevious();
+                }
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Fehler beim Erstellen der Schriftart", e);
+
+            json.writeStartObject();
+            json.writeStringField("op", "end");
+            json.writeNumberField("count", rows);
+            json.writeStringField("watermark", watermark.toToken());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } finally {
+            cursor.close();
+        }
+        json.flush();
+    }
+
+    /**
+     * Number of rows an export will write, for progress reporting; 0 for the statistics reports.
+     */
+    public long countRows(ExportType type) {
+        return switch (type) {
+            case IDEAS_CSV, IDEAS_PDF, IDEAS_XLSX -> em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
+            case USERS_CSV, USERS_XLSX -> em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
+            default -> 0L;
+        };
+    }
+
+    private Document openPdf(OutputStream output) {
+        PdfWriter writer = new PdfWriter(output);
+        // Den Ausgabestrom nicht schließen, das übernimmt der Container
+        writer.setCloseStream(false);
+        // Fertige Seiten sofort schreiben statt das ganze Dokument im Speicher zu halten
+        return new Document(new PdfDocument(writer), PageSize.A4, true);
+    }
+
+    private void addReportTitle(Document document, String text, PdfFont boldFont, PdfFont regularFont) {
+        document.add(new Paragraph(text)
+                .setFont(boldFont)
+                .setFontSize(20)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20));
+        document.add(new Paragraph("Erstellt: " + LocalDateTime.now().format(DATE_FORMAT))
+                .setFont(regularFont)
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.RIGHT)
+                .setMarginBottom(20));
+    }
+
+    private void addTableHeader(Table table, PdfFont font, String... headers) {
+        for (String header : headers) {
+            Cell cell = new Cell()
+                    .add(new Paragraph(header).setFont(font))
+                    .setBackgroundColor(ColorConstants.LIGHT_GRAY);
+            table.addHeaderCell(cell);
         }
     }
 
-    private void addTableRow(Table table, String label, String value, PdfFont font) {
-        table.addCell(new Cell().add(new Paragraph(label).setFont(font)));
-        table.addCell(new Cell().add(new Paragraph(value).setFont(font)));
+    private void addTableRow(Table table, PdfFont font, String... values) {
+        for (String value : values) {
+            table.addCell(new Cell().add(new Paragraph(value != null ? value : "").setFont(font)));
+        }
     }
 
     private String escapeCsv(String value) {
@@ -232,40 +488,95 @@ public class ExportService {
         return value;
     }
 
-    public byte[] exportUsersToCsv() {
-        List<User> users = em.createQuery("SELECT u FROM User u ORDER BY u.createdAt DESC", User.class)
-                .getResultList();
+    /**
+     * Writes all users with their activity counts as CSV to the given stream. Users and counts come from a single
+     * aggregated query read through a database cursor, so the export costs one query regardless of the user count.
+     */
+    @Transactional
+    public void writeUsersCsv(OutputStream output) throws IOException {
+        writeUsersCsv(output, rows -> { });
+    }
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Benutzername,E-Mail,Vorname,Nachname,Rolle,XP-Punkte,Level,Anzahl Ideen,Vergebene Likes,Kommentare,Aktiv,Erstellt am\n");
-
-        for (User user : users) {
-            Long ideasCount = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.author.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-            Long likesGiven = em.createQuery("SELECT COUNT(l) FROM Like l WHERE l.user.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-            Long commentsCount = em.createQuery("SELECT COUNT(c) FROM Comment c WHERE c.author.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-
-            csv.append(user.getId()).append(",");
-            csv.append(escapeCsv(user.getUsername())).append(",");
-            csv.append(escapeCsv(user.getEmail())).append(",");
-            csv.append(escapeCsv(user.getFirstName())).append(",");
-            csv.append(escapeCsv(user.getLastName())).append(",");
-            csv.append(user.getRole().name()).append(",");
-            csv.append(user.getXpPoints()).append(",");
-            csv.append(user.getLevel()).append(",");
-            csv.append(ideasCount).append(",");
-            csv.append(likesGiven).append(",");
-            csv.append(commentsCount).append(",");
-            csv.append(user.getIsActive()).append(",");
-            csv.append(user.getCreatedAt().format(DATE_FORMAT)).append("\n");
+    /**
+     * Like {@link #writeUsersCsv(OutputStream)}, reporting the number of rows written so far to {@code progress}.
+     */
+    @Transactional
+    public void writeUsersCsv(OutputStream output, IntConsumer progress) throws IOException {
+        Query query = usersExportQuery();
+        BufferedWriter csv = csvWriter(output);
+        csv.write("ID,Benutzername,E-Mail,Vorname,Nachname,Rolle,XP-Punkte,Level,Anzahl Ideen,Vergebene Likes,Kommentare,Aktiv,Erstellt am\n");
+
+        CursoredStream cursor = openCursor(query);
+        try {
+            int rows = 0;
+            while (cursor.hasNext()) {
+                Object[] row = (Object[]) cursor.next();
+                csv.write(String.valueOf(row[0]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[1]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[2]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[3]));
+                csv.write(',');
+                csv.write(escapeCsv((String) row[4]));
+                csv.write(',');
+                csv.write(String.valueOf(row[5]));
+                csv.write(',');
+                // Ganzzahlen und Wahrheitswerte direkt, damit die Spalten dem bisherigen Format entsprechen
+                for (int column = 6; column <= 11; column++) {
+                    csv.write(String.valueOf(row[column]));
+                    csv.write(',');
+                }
+                csv.write(toLocalDateTime(row[12]).format(DATE_FORMAT));
+                csv.write('\n');
+                if (++rows % CURSOR_CHUNK_SIZE == 0) {
+                    cursor.releasePrevious();
+                    progress.accept(rows);
+                }
+            }
+            progress.accept(rows);
+        } finally {
+            cursor.close();
         }
+        csv.flush();
+    }
 
-        return csv.toString().getBytes();
+    private Query ideasExportQuery() {
+        return em.createQuery(
+                "SELECT i.id, i.title, i.description, i.category, i.status, i.progressPercentage, a.username, " +
+                "i.likeCount, i.commentCount, i.createdAt FROM Idea i JOIN i.author a ORDER BY i.createdAt DESC")
+                .setHint(QueryHints.READ_ONLY, HintValues.TRUE);
+    }
+
+    private Query usersExportQuery() {
+        return em.createNativeQuery(User.EXPORT_WITH_ACTIVITY_SQL)
+                .setHint(QueryHints.RESULT_TYPE, ResultType.Array);
+    }
+
+    private CursoredStream openCursor(Query query) {
+        return (CursoredStream) query
+                .setHint(QueryHints.CURSOR, HintValues.TRUE)
+                .setHint(QueryHints.CURSOR_PAGE_SIZE, CURSOR_CHUNK_SIZE)
+                .setHint(QueryHints.JDBC_FETCH_SIZE, CURSOR_CHUNK_SIZE)
+                .getSingleResult();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        // Native Abfragen liefern je nach Treiber Timestamp oder LocalDateTime
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private JsonGenerator ndjsonWriter(OutputStream output) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(csvWriter(output));
+        // Zeilen selbst trennen statt mit dem Standard-Leerzeichen zwischen Wurzelobjekten
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private BufferedWriter csvWriter(OutputStream output) {
+        // Den Ausgabestrom nicht schließen, das übernimmt der Container
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
     }
 
     private String truncate(String value, int maxLength) {
@@ -0,0 +1,65 @@
+package com.gfos.ideaboard.service;
+
+/**
+ * The available exports, identified by data set and file format as in the /export URLs.
+ */
+public enum ExportType {
+
+    IDEAS_CSV("ideas", "csv", "text/csv; charset=UTF-8", false),
+    IDEAS_PDF("ideas", "pdf", "application/pdf", false),
+    IDEAS_XLSX("ideas", "xlsx", ExportType.XLSX_MEDIA_TYPE, false),
+    STATISTICS_CSV("statistics", "csv", "text/csv; charset=UTF-8", false),
+    STATISTICS_PDF("statistics", "pdf", "application/pdf", false),
+    STATISTICS_XLSX("statistics", "xlsx", ExportType.XLSX_MEDIA_TYPE, false),
+    USERS_CSV("users", "csv", "text/csv; charset=UTF-8", true),
+    USERS_XLSX("users", "xlsx", ExportType.XLSX_MEDIA_TYPE, true);
+
+    public static final String XLSX_MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final String dataSet;
+    private final String format;
+    private final String mediaType;
+    private final boolean adminOnly;
+
+    ExportType(String dataSet, String format, String mediaType, boolean adminOnly) {
+        this.dataSet = dataSet;
+        this.format = format;
+        this.mediaType = mediaType;
+        this.adminOnly = adminOnly;
+    }
+
+    /**
+     * Returns the export for a data set and format, or null if there is none.
+     */
+    public static ExportType of(String dataSet, String format) {
+        for (ExportType type : values()) {
+            if (type.dataSet.equalsIgnoreCase(dataSet) && type.format.equalsIgnoreCase(format)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public String getDataSet() {
+        return dataSet;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Whether only administrators may run this export; all others are open to project managers as well.
+     */
+    public boolean isAdminOnly() {
+        return adminOnly;
+    }
+
+    public String getFilename() {
+        return dataSet + "." + format;
+    }
+}
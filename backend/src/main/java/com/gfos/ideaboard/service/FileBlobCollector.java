@@ -0,0 +1,130 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Garbage collector of the content-addressed attachment store. Deletes blobs that have had no references
+ * for a grace period, expired chunked uploads and files that no row refers to. Keeps totals for the storage metrics.
+ */
+@ApplicationScoped
+public class FileBlobCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBlobCollector.class);
+
+    private static final long COLLECT_INTERVAL_MINUTES = 60;
+    // Schonfrist, damit laufende Uploads ihre Dateien nicht verlieren
+    private static final Duration GRACE_PERIOD = Duration.ofHours(1);
+    private static final int BATCH_SIZE = 100;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private FileService fileService;
+
+    @Inject
+    private ChunkedUploadService chunkedUploadService;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> collectTask;
+
+    private final AtomicLong blobsCollected = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private volatile Instant lastRunAt;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        collectTask = scheduler.scheduleWithFixedDelay(this::collectSafely,
+                COLLECT_INTERVAL_MINUTES, COLLECT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (collectTask != null) {
+            collectTask.cancel(false);
+        }
+    }
+
+    /**
+     * Runs one collection. Returns the number of bytes freed on disk.
+     */
+    public long collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(GRACE_PERIOD);
+        long freed = 0;
+        long collected = 0;
+        List<Long> blobIds;
+        do {
+            blobIds = em.createNamedQuery("FileBlob.findUnreferencedIds", Long.class)
+                    .setParameter("cutoff", cutoff)
+                    .setMaxResults(BATCH_SIZE)
+                    .getResultList();
+            for (Long blobId : blobIds) {
+                long bytes = fileService.collectBlob(blobId);
+                if (bytes > 0) {
+                    collected++;
+                    freed += bytes;
+                }
+            }
+        } while (blobIds.size() == BATCH_SIZE);
+
+        // Abgebrochene stückweise Uploads
+        List<Long> uploadIds;
+        do {
+            uploadIds = chunkedUploadService.findExpiredIds(BATCH_SIZE);
+            for (Long uploadId : uploadIds) {
+                freed += chunkedUploadService.discardExpired(uploadId);
+            }
+        } while (uploadIds.size() == BATCH_SIZE);
+
+        Instant sweepCutoff = Instant.now().minus(GRACE_PERIOD);
+        freed += fileService.sweepOrphanedFiles(sweepCutoff);
+        freed += chunkedUploadService.sweepOrphanedChunks(sweepCutoff);
+
+        blobsCollected.addAndGet(collected);
+        bytesReclaimed.addAndGet(freed);
+        lastRunAt = Instant.now();
+        return freed;
+    }
+
+    /**
+     * Returns the totals of all collections since startup.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blobsCollected", blobsCollected.get());
+        stats.put("bytesReclaimed", bytesReclaimed.get());
+        stats.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        return stats;
+    }
+
+    private void collectSafely() {
+        try {
+            long freed = collect();
+            if (freed > 0) {
+                logger.info("Dateispeicher aufgeräumt, {} Bytes freigegeben", freed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Aufräumen des Dateispeichers fehlgeschlagen", e);
+        }
+    }
+}
@@ -2,29 +2,80 @@ package com.gfos.ideaboard.service;
 
 import com.gfos.ideaboard.dto.FileAttachmentDTO;
 import com.gfos.ideaboard.entity.FileAttachment;
+import com.gfos.ideaboard.entity.FileBlob;
 import com.gfos.ideaboard.entity.Idea;
 import com.gfos.ideaboard.entity.User;
 import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.Resource;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @ApplicationScoped
 public class FileService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileService.class);
+
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
-    private static final String UPLOAD_DIR = System.getProperty("com.sun.aas.instanceRoot", ".") + "/uploads";
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    @Inject
+    private ThumbnailService thumbnailService;
+
+    static final String UPLOAD_DIR = System.getProperty("com.sun.aas.instanceRoot", ".") + "/uploads";
+    private static final String TEMP_DIR = ".tmp";
+    private static final String BLOB_DIR = "blobs";
+    private static final int SWEEP_BATCH_SIZE = 500;
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    // Bereits komprimierte Formate werden im ZIP-Archiv nur gespeichert, nicht erneut komprimiert
+    private static final List<String> COMPRESSED_TYPES = Arrays.asList(
+            "image/jpeg", "image/png", "image/gif", "image/webp",
+            "application/pdf",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+    );
     private static final List<String> ALLOWED_TYPES = Arrays.asList(
             "image/jpeg", "image/png", "image/gif", "image/webp",
             "application/pdf",
@@ -35,9 +86,13 @@ public class FileService {
             "text/plain", "text/csv"
     );
 
+    /**
+     * Streams an upload to a temp file and moves it into the content-addressed store. Only a fixed-size buffer is
+     * held in memory; the size limit is enforced and the SHA-256 hash computed while streaming, and the type is
+     * sniffed from the first bytes. Content that is already stored is shared instead of written a second time.
+     */
     @Transactional
-    public FileAttachmentDTO uploadFile(Long ideaId, String originalFilename, String mimeType,
-                                         byte[] fileData, Long uploaderId) {
+    public FileAttachmentDTO uploadFile(Long ideaId, String originalFilename, InputStream content, Long uploaderId) {
         Idea idea = em.find(Idea.class, ideaId);
         if (idea == null) {
             throw ApiException.notFound("Idee nicht gefunden");
@@ -48,73 +103,240 @@ public class FileService {
             throw ApiException.notFound("Benutzer nicht gefunden");
         }
 
-        // Dateigröße validieren
-        if (fileData.length > MAX_FILE_SIZE) {
-            throw ApiException.badRequest("Dateigröße übersteigt Maximum (10MB)");
-        }
-
-        // Dateityp validieren
-        if (!ALLOWED_TYPES.contains(mimeType)) {
-            throw ApiException.badRequest("Dateityp nicht erlaubt: " + mimeType);
+        // In Temp-Datei streamen, dabei Größe prüfen, Hash berechnen und Kopfbytes für die Typerkennung sammeln
+        Path tempFile = tempDirectory().resolve(UUID.randomUUID() + ".part");
+        MessageDigest digest = newSha256();
+        byte[] header = new byte[MimeTypeSniffer.HEADER_LENGTH];
+        long fileSize;
+        try {
+            fileSize = writeStream(content, tempFile, digest, header, MAX_FILE_SIZE,
+                    "Dateigröße übersteigt Maximum (10MB)");
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw ApiException.serverError("Fehler beim Speichern der Datei");
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
         }
 
-        // Eindeutigen Dateinamen generieren
-        String extension = getFileExtension(originalFilename);
-        String storedFilename = UUID.randomUUID().toString() + extension;
+        return storeFile(idea, uploader, originalFilename, tempFile, fileSize,
+                HexFormat.of().formatHex(digest.digest()), header);
+    }
 
-        // Verzeichnisstruktur erstellen
-        Path ideaUploadDir = Paths.get(UPLOAD_DIR, ideaId.toString());
-        try {
-            Files.createDirectories(ideaUploadDir);
-        } catch (IOException e) {
-            throw ApiException.serverError("Fehler beim Erstellen des Upload-Verzeichnisses");
+    /**
+     * Validates the type of a fully written temp file and moves it into the content-addressed store.
+     * Must be called inside a transaction; the temp file is consumed (moved or deleted) in every case.
+     */
+    FileAttachmentDTO storeFile(Idea idea, User uploader, String originalFilename, Path tempFile,
+                                long fileSize, String sha256, byte[] header) {
+        // Dateityp anhand des Inhalts validieren
+        int headerLength = (int) Math.min(fileSize, header.length);
+        String mimeType = MimeTypeSniffer.detect(header, headerLength, originalFilename);
+        if (mimeType == null || !ALLOWED_TYPES.contains(mimeType)) {
+            deleteQuietly(tempFile);
+            throw ApiException.badRequest("Dateityp nicht erlaubt: " + MimeTypeSniffer.fromExtension(originalFilename));
         }
 
-        // Datei speichern
-        Path filePath = ideaUploadDir.resolve(storedFilename);
+        // Inhalt anlegen oder vorhandenen sperren, damit die Garbage Collection ihn nicht gleichzeitig löscht
+        Long blobId = ((Number) em.createNativeQuery(FileBlob.UPSERT_SQL)
+                .setParameter(1, sha256)
+                .setParameter(2, fileSize)
+                .getSingleResult()).longValue();
+
+        // Immer atomar ersetzen: gleicher Inhalt, frischer Zeitstempel schützt vor dem Aufräumen verwaister Dateien.
+        // Kein Löschen beim Rollback, da andere Anhänge den Inhalt verwenden können (übernimmt die Garbage Collection)
+        Path filePath = blobPath(sha256);
         try {
-            Files.write(filePath, fileData);
+            Files.createDirectories(filePath.getParent());
+            Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
+            deleteQuietly(tempFile);
             throw ApiException.serverError("Fehler beim Speichern der Datei");
         }
 
         // Datenbank-Datensatz erstellen
         FileAttachment attachment = new FileAttachment();
         attachment.setIdea(idea);
-        attachment.setFilename(storedFilename);
+        attachment.setBlob(em.getReference(FileBlob.class, blobId));
+        attachment.setFilename(sha256);
         attachment.setOriginalName(originalFilename);
         attachment.setMimeType(mimeType);
-        attachment.setFileSize((long) fileData.length);
+        attachment.setFileSize(fileSize);
         attachment.setFilePath(filePath.toString());
         attachment.setUploadedBy(uploader);
 
         em.persist(attachment);
 
+        // Vorschaubilder erst nach dem Commit im Hintergrund erzeugen
+        afterCommit(() -> thumbnailService.scheduleAll(sha256, filePath, mimeType));
+
         return FileAttachmentDTO.fromEntity(attachment);
     }
 
-    public byte[] getFile(Long ideaId, Long fileId) {
-        FileAttachment attachment = em.find(FileAttachment.class, fileId);
-        if (attachment == null || !attachment.getIdea().getId().equals(ideaId)) {
-            throw ApiException.notFound("Datei nicht gefunden");
-        }
+    static boolean isAllowedType(String mimeType) {
+        return ALLOWED_TYPES.contains(mimeType);
+    }
 
-        Path filePath = Paths.get(UPLOAD_DIR, ideaId.toString(), attachment.getFilename());
+    /**
+     * Returns the directory for temp files, on the same file system as the store so files can be moved atomically.
+     */
+    Path tempDirectory() {
+        Path tempDir = Paths.get(UPLOAD_DIR, TEMP_DIR);
         try {
-            return Files.readAllBytes(filePath);
+            Files.createDirectories(tempDir);
         } catch (IOException e) {
-            throw ApiException.notFound("Datei nicht auf der Festplatte gefunden");
+            throw ApiException.serverError("Fehler beim Erstellen des Upload-Verzeichnisses");
         }
+        return tempDir;
     }
 
-    public FileAttachment getFileAttachment(Long fileId) {
+    /**
+     * Writes a stream to a new file through a fixed-size buffer, updating the digest and filling {@code header}
+     * with the first bytes. Throws a bad request with {@code tooLargeMessage} once more than {@code maxSize}
+     * bytes arrive; the caller deletes the target on any failure. Returns the number of bytes written.
+     */
+    static long writeStream(InputStream content, Path target, MessageDigest digest, byte[] header,
+                            long maxSize, String tooLargeMessage) throws IOException {
+        int headerLength = 0;
+        long size = 0;
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw ApiException.badRequest(tooLargeMessage);
+                }
+                buffer.flip();
+                if (headerLength < header.length) {
+                    int n = Math.min(header.length - headerLength, buffer.remaining());
+                    buffer.get(buffer.position(), header, headerLength, n);
+                    headerLength += n;
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the attachment if it belongs to the given idea.
+     */
+    public FileAttachment getFileAttachment(Long ideaId, Long fileId) {
         FileAttachment attachment = em.find(FileAttachment.class, fileId);
-        if (attachment == null) {
+        if (attachment == null || !attachment.getIdea().getId().equals(ideaId)) {
             throw ApiException.notFound("Datei nicht gefunden");
         }
         return attachment;
     }
 
+    /**
+     * Returns the location of a stored attachment on disk.
+     */
+    public Path getStoredFile(FileAttachment attachment) {
+        Path filePath = attachment.getBlob() != null
+                ? blobPath(attachment.getBlob().getSha256())
+                : Paths.get(UPLOAD_DIR, attachment.getIdea().getId().toString(), attachment.getFilename());
+        if (!Files.isRegularFile(filePath)) {
+            throw ApiException.notFound("Datei nicht auf der Festplatte gefunden");
+        }
+        return filePath;
+    }
+
+    /**
+     * Streams all attachments of an idea as a ZIP archive straight to the response. Entries are written through a
+     * fixed-size buffer, so neither the heap nor the disk holds the archive. Already compressed formats are stored;
+     * their CRC is computed in a separate read pass because stored entries need it before the data.
+     */
+    public StreamingOutput streamArchive(Long ideaId) {
+        if (em.find(Idea.class, ideaId) == null) {
+            throw ApiException.notFound("Idee nicht gefunden");
+        }
+        List<FileAttachment> attachments = em.createNamedQuery("FileAttachment.findByIdeaWithBlob", FileAttachment.class)
+                .setParameter("ideaId", ideaId)
+                .getResultList();
+        if (attachments.isEmpty()) {
+            throw ApiException.notFound("Keine Anhänge vorhanden");
+        }
+
+        // Alles, was das Streaming braucht, vorab auflösen: der Persistenzkontext ist danach nicht mehr verfügbar
+        List<ArchiveEntry> entries = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        for (FileAttachment attachment : attachments) {
+            Path filePath = attachment.getBlob() != null
+                    ? blobPath(attachment.getBlob().getSha256())
+                    : Paths.get(UPLOAD_DIR, ideaId.toString(), attachment.getFilename());
+            entries.add(new ArchiveEntry(uniqueEntryName(attachment.getOriginalName(), usedNames), filePath,
+                    attachment.getUploadedAt(), COMPRESSED_TYPES.contains(attachment.getMimeType())));
+        }
+
+        return output -> {
+            ZipOutputStream zip = new ZipOutputStream(output);
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            for (ArchiveEntry entry : entries) {
+                if (!Files.isRegularFile(entry.path)) {
+                    // Antwort läuft bereits, daher nur überspringen
+                    logger.warn("Anhang {} fehlt auf der Festplatte und wird im Archiv übersprungen", entry.path);
+                    continue;
+                }
+                ZipEntry zipEntry = new ZipEntry(entry.name);
+                zipEntry.setTimeLocal(entry.modifiedAt);
+                if (entry.stored) {
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(Files.size(entry.path));
+                    zipEntry.setCompressedSize(zipEntry.getSize());
+                    zipEntry.setCrc(crc32(entry.path, buffer));
+                }
+                zip.putNextEntry(zipEntry);
+                try (InputStream in = Files.newInputStream(entry.path)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, read);
+                    }
+                }
+                zip.closeEntry();
+            }
+            // Nur das Archiv abschließen, den Ausgabestrom schließt der Container
+            zip.finish();
+            zip.flush();
+        };
+    }
+
+    /**
+     * Returns the cached thumbnail of an image attachment in the given size.
+     */
+    public Path getThumbnail(FileAttachment attachment, int size) {
+        return thumbnailService.getThumbnail(thumbnailKey(attachment), getStoredFile(attachment),
+                attachment.getMimeType(), size);
+    }
+
+    /**
+     * Streams {@code length} bytes of a file starting at {@code offset} with FileChannel.transferTo,
+     * so the content never passes through the heap as a whole.
+     */
+    public StreamingOutput streamFile(Path filePath, long offset, long length) {
+        return output -> {
+            try (FileChannel source = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long position = offset;
+                long remaining = length;
+                while (remaining > 0) {
+                    long transferred = source.transferTo(position, remaining, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        };
+    }
+
     @Transactional
     public void deleteFile(Long ideaId, Long fileId, Long userId) {
         FileAttachment attachment = em.find(FileAttachment.class, fileId);
@@ -128,22 +350,240 @@ public class FileService {
             throw ApiException.forbidden("Nicht berechtigt, diese Datei zu löschen");
         }
 
-        // Aus Dateisystem löschen
-        Path filePath = Paths.get(UPLOAD_DIR, ideaId.toString(), attachment.getFilename());
-        try {
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            // Protokollieren aber fortfahren - Datenbank-Datensatz sollte immer noch gelöscht werden
+        // Alte Anhänge aus dem Dateisystem löschen; Inhalte im Speicher räumt die Garbage Collection ab,
+        // sobald kein Anhang mehr auf sie verweist (Zähler pflegt der Trigger)
+        if (attachment.getBlob() == null) {
+            Path filePath = Paths.get(UPLOAD_DIR, ideaId.toString(), attachment.getFilename());
+            try {
+                Files.deleteIfExists(filePath);
+            } catch (IOException e) {
+                // Protokollieren aber fortfahren - Datenbank-Datensatz sollte immer noch gelöscht werden
+            }
+            thumbnailService.deleteAll(thumbnailKey(attachment));
         }
 
         // Aus Datenbank löschen
         em.remove(attachment);
     }
 
-    private String getFileExtension(String filename) {
-        if (filename == null) return "";
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot == -1) return "";
-        return filename.substring(lastDot);
+    /**
+     * Deletes an unreferenced blob and its file. Returns the number of bytes freed, or 0 if the blob
+     * is gone or was referenced again in the meantime.
+     */
+    @Transactional
+    public long collectBlob(Long blobId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> deleted = em.createNativeQuery(FileBlob.DELETE_UNREFERENCED_SQL)
+                .setParameter(1, blobId)
+                .getResultList();
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+        // Datei noch unter der Zeilensperre löschen; ein paralleler Upload desselben Inhalts wartet darauf
+        // und legt die Datei danach neu ab
+        Object[] row = deleted.get(0);
+        String sha256 = ((String) row[0]).trim();
+        deleteQuietly(blobPath(sha256));
+        thumbnailService.deleteAll(sha256);
+        return ((Number) row[1]).longValue();
+    }
+
+    /**
+     * Removes files that no database row refers to and that are older than {@code cutoff}: blob files
+     * without a blob row, left-over temp files of aborted uploads, and directories of deleted ideas
+     * from before the content-addressed store. Returns the number of bytes freed.
+     */
+    public long sweepOrphanedFiles(Instant cutoff) {
+        FileTime cutoffTime = FileTime.from(cutoff);
+        long freed = 0;
+
+        // Blob-Dateien ohne Datensatz (z.B. nach einem Rollback des Uploads)
+        Path blobRoot = Paths.get(UPLOAD_DIR, BLOB_DIR);
+        if (Files.isDirectory(blobRoot)) {
+            List<Path> candidates = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(blobRoot, 2)) {
+                files.filter(Files::isRegularFile)
+                        .filter(file -> isOlderThan(file, cutoffTime))
+                        .forEach(candidates::add);
+            } catch (IOException e) {
+                logger.warn("Blob-Verzeichnis {} konnte nicht gelesen werden", blobRoot, e);
+            }
+            for (int from = 0; from < candidates.size(); from += SWEEP_BATCH_SIZE) {
+                List<Path> batch = candidates.subList(from, Math.min(from + SWEEP_BATCH_SIZE, candidates.size()));
+                List<String> hashes = batch.stream().map(file -> file.getFileName().toString()).toList();
+                Set<String> existing = new HashSet<>();
+                em.createNamedQuery("FileBlob.findExistingHashes", String.class)
+                        .setParameter("hashes", hashes)
+                        .getResultList()
+                        .forEach(hash -> existing.add(hash.trim()));
+                for (Path file : batch) {
+                    if (!existing.contains(file.getFileName().toString())) {
+                        freed += deleteCounting(file);
+                    }
+                }
+            }
+        }
+
+        // Temp-Dateien abgebrochener Uploads
+        Path tempDir = Paths.get(UPLOAD_DIR, TEMP_DIR);
+        if (Files.isDirectory(tempDir)) {
+            try (Stream<Path> files = Files.list(tempDir)) {
+                for (Path file : files.filter(file -> isOlderThan(file, cutoffTime)).toList()) {
+                    freed += deleteCounting(file);
+                }
+            } catch (IOException e) {
+                logger.warn("Temp-Verzeichnis {} konnte nicht gelesen werden", tempDir, e);
+            }
+        }
+
+        // Alte Verzeichnisse uploads/{ideaId} gelöschter Ideen
+        List<Path> ideaDirs = new ArrayList<>();
+        try (Stream<Path> dirs = Files.isDirectory(Paths.get(UPLOAD_DIR)) ? Files.list(Paths.get(UPLOAD_DIR)) : Stream.empty()) {
+            dirs.filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName().toString().matches("\\d+"))
+                    .forEach(ideaDirs::add);
+        } catch (IOException e) {
+            logger.warn("Upload-Verzeichnis {} konnte nicht gelesen werden", UPLOAD_DIR, e);
+        }
+        for (Path dir : ideaDirs) {
+            if (em.find(Idea.class, Long.valueOf(dir.getFileName().toString())) == null) {
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path file : files.toList()) {
+                        freed += deleteCounting(file);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Verzeichnis {} konnte nicht gelesen werden", dir, e);
+                }
+                deleteQuietly(dir);
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Returns logical and physical size of the blob store and the bytes saved by deduplication.
+     */
+    public Map<String, Object> getStorageStats() {
+        Object[] row = (Object[]) em.createNativeQuery(FileBlob.STORAGE_STATS_SQL).getSingleResult();
+        long logicalBytes = ((Number) row[1]).longValue();
+        long physicalBytes = ((Number) row[3]).longValue();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("attachments", ((Number) row[0]).longValue());
+        stats.put("logicalBytes", logicalBytes);
+        stats.put("blobs", ((Number) row[2]).longValue());
+        stats.put("physicalBytes", physicalBytes);
+        stats.put("savedBytes", logicalBytes - physicalBytes);
+        stats.put("deduplicationRatio", physicalBytes > 0 ? (double) logicalBytes / physicalBytes : 1.0);
+        stats.put("unreferencedBlobs", ((Number) row[4]).longValue());
+        stats.put("unreferencedBytes", ((Number) row[5]).longValue());
+        return stats;
+    }
+
+    private static long crc32(Path file, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static String uniqueEntryName(String originalName, Set<String> usedNames) {
+        // Keine Pfade im Archiv; gleiche Namen werden durchnummeriert
+        String name = originalName.replaceAll("[/\\\\]", "_");
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 2; !usedNames.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private String thumbnailKey(FileAttachment attachment) {
+        // Inhalte im Speicher teilen sich ihre Vorschauen, alte Anhänge haben eigene
+        return attachment.getBlob() != null ? attachment.getBlob().getSha256() : "a" + attachment.getId();
+    }
+
+    /**
+     * Runs an action once the surrounding transaction has committed.
+     */
+    void afterCommit(Runnable action) {
+        if (txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private Path blobPath(String sha256) {
+        // Zwei Zeichen als Unterverzeichnis halten die Verzeichnisse klein
+        return Paths.get(UPLOAD_DIR, BLOB_DIR, sha256.substring(0, 2), sha256);
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    private static boolean isOlderThan(Path file, FileTime cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(cutoff) < 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private long deleteCounting(Path file) {
+        try {
+            long size = Files.size(file);
+            return Files.deleteIfExists(file) ? size : 0;
+        } catch (IOException e) {
+            logger.warn("Datei {} konnte nicht gelöscht werden", file, e);
+            return 0;
+        }
+    }
+
+    void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Datei {} konnte nicht gelöscht werden", path, e);
+        }
+    }
+
+    /**
+     * One file of a ZIP archive, resolved before streaming starts.
+     */
+    private static final class ArchiveEntry {
+        private final String name;
+        private final Path path;
+        private final LocalDateTime modifiedAt;
+        private final boolean stored;
+
+        private ArchiveEntry(String name, Path path, LocalDateTime modifiedAt, boolean stored) {
+            this.name = name;
+            this.path = path;
+            this.modifiedAt = modifiedAt;
+            this.stored = stored;
+        }
     }
 }
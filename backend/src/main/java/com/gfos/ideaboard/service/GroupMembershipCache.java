@@ -0,0 +1,109 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of group memberships, keyed by user.
+ * Each user maps to a sorted array of group IDs, so a membership check is a binary search
+ * without database access. Entries are loaded lazily with one query per user.
+ */
+@ApplicationScoped
+public class GroupMembershipCache {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    private final Map<Long, long[]> groupIdsByUser = new ConcurrentHashMap<>();
+    // Änderungszähler je Benutzer, von invalidate erhöht; eine Zeile je Benutzer mit geänderter Mitgliedschaft
+    private final Map<Long, Long> versionsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if a user is a member of a group, loading the user's memberships on a cache miss.
+     */
+    public boolean isMember(Long groupId, Long userId) {
+        if (groupId == null || userId == null) {
+            return false;
+        }
+        long[] groupIds = groupIdsByUser.get(userId);
+        if (groupIds == null) {
+            long version = versionsByUser.getOrDefault(userId, 0L);
+            groupIds = loadGroupIds(userId);
+            if (groupIdsByUser.size() >= MAX_CACHED_USERS) {
+                groupIdsByUser.clear();
+            }
+            groupIdsByUser.put(userId, groupIds);
+            // Während des Ladens geändert: der geladene Stand kann veraltet sein und darf nicht im Cache bleiben
+            if (versionsByUser.getOrDefault(userId, 0L) != version) {
+                groupIdsByUser.remove(userId, groupIds);
+            }
+        }
+        return Arrays.binarySearch(groupIds, groupId) >= 0;
+    }
+
+    /**
+     * Drops the cached memberships of a user. Must be called whenever a membership of the user changes.
+     * Inside a transaction the entry is evicted again after completion, so a concurrent reload
+     * cannot keep the pre-commit state. Each eviction bumps the user's version, and a load that overlapped
+     * a bump drops its result instead of caching it.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+
+        if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            txRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops all cached memberships.
+     */
+    public void invalidateAll() {
+        groupIdsByUser.clear();
+    }
+
+    private void evict(Long userId) {
+        // Erst die Version erhöhen, dann entfernen: ein gleichzeitiges Laden sieht die Änderung beim Prüfen
+        versionsByUser.merge(userId, 1L, Long::sum);
+        groupIdsByUser.remove(userId);
+    }
+
+    private long[] loadGroupIds(Long userId) {
+        List<Long> ids = em.createNamedQuery("GroupMember.findGroupIdsByUser", Long.class)
+                .setParameter("userId", userId)
+                .getResultList();
+
+        long[] groupIds = new long[ids.size()];
+        for (int i = 0; i < groupIds.length; i++) {
+            groupIds[i] = ids.get(i);
+        }
+        Arrays.sort(groupIds);
+        return groupIds;
+    }
+}
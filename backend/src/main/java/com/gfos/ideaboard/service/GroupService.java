@@ -24,6 +24,9 @@ public class GroupService {
     @Inject
     private NotificationService notificationService;
 
+    @Inject
+    private GroupMembershipCache membershipCache;
+
     /**
      * Creates a group for an idea. Called automatically when an idea is created.
      */
@@ -44,6 +47,7 @@ public class GroupService {
         creatorMember.setRole(GroupMemberRole.CREATOR);
 
         em.persist(creatorMember);
+        membershipCache.invalidate(creator.getId());
 
         return group;
     }
@@ -160,6 +164,7 @@ public class GroupService {
 
         em.persist(member);
         em.flush(); // Ensure the member is persisted before fetching
+        membershipCache.invalidate(userId);
 
         // Notify group creator that someone joined
         notificationService.notifyGroupJoin(group, user);
@@ -213,6 +218,7 @@ public class GroupService {
         }
 
         em.remove(members.get(0));
+        membershipCache.invalidate(userId);
     }
 
     /**
@@ -343,15 +349,10 @@ public class GroupService {
     }
 
     /**
-     * Checks if a user is a member of a group.
+     * Checks if a user is a member of a group. Answered from the membership cache.
      */
     public boolean isMember(Long groupId, Long userId) {
-        Long count = em.createQuery(
-                "SELECT COUNT(gm) FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.user.id = :userId", Long.class)
-                .setParameter("groupId", groupId)
-                .setParameter("userId", userId)
-                .getSingleResult();
-        return count > 0;
+        return membershipCache.isMember(groupId, userId);
     }
 
     /**
@@ -11,12 +11,15 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response;
+import java.sql.Timestamp;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class MessageService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
@@ -52,6 +55,9 @@ public class MessageService {
         }
 
         em.persist(message);
+        em.flush(); // Flush to ensure ID is generated before updating the conversation
+
+        updateConversation(message);
 
         // Create notification for recipient
         notifyNewMessage(recipient, sender, content, ideaId);
@@ -59,72 +65,48 @@ public class MessageService {
         return MessageDTO.fromEntity(message);
     }
 
-    public List<MessageDTO> getConversation(Long userId, Long otherUserId, int limit, int offset) {
-        List<Message> messages = em.createNamedQuery("Message.findConversation", Message.class)
-                .setParameter("user1", userId)
-                .setParameter("user2", otherUserId)
-                .setFirstResult(offset)
-                .setMaxResults(limit)
+    /**
+     * Returns the latest messages of a conversation, or the messages older than beforeId if given.
+     * Pages are fetched newest first via keyset paging and returned in chronological order.
+     */
+    public List<MessageDTO> getConversation(Long userId, Long otherUserId, int limit, Long beforeId) {
+        @SuppressWarnings("unchecked")
+        List<Message> messages = em.createNamedQuery("Message.findConversationBefore")
+                .setParameter(1, Math.min(userId, otherUserId))
+                .setParameter(2, Math.max(userId, otherUserId))
+                .setParameter(3, beforeId != null ? beforeId : Long.MAX_VALUE)
+                .setMaxResults(clampPageSize(limit))
                 .getResultList();
 
-        return messages.stream()
+        List<MessageDTO> page = messages.stream()
                 .map(MessageDTO::fromEntity)
                 .collect(Collectors.toList());
+        Collections.reverse(page);
+        return page;
     }
 
-    public List<ConversationDTO> getUserConversations(Long userId) {
-        // Get all messages for this user
-        List<Message> allMessages = em.createNamedQuery("Message.findUserMessages", Message.class)
+    /**
+     * Returns a page of the user's conversations, most recent first, from the conversations read model.
+     */
+    public List<ConversationDTO> getUserConversations(Long userId, int limit, int offset) {
+        List<Conversation> conversations = em.createNamedQuery("Conversation.findByUser", Conversation.class)
                 .setParameter("userId", userId)
+                .setFirstResult(Math.max(0, offset))
+                .setMaxResults(clampPageSize(limit))
                 .getResultList();
 
-        // Group messages by conversation partner
-        Map<Long, List<Message>> messagesByUser = new LinkedHashMap<>();
-
-        for (Message msg : allMessages) {
-            Long otherUserId = msg.getSender().getId().equals(userId)
-                    ? msg.getRecipient().getId()
-                    : msg.getSender().getId();
-
-            messagesByUser.computeIfAbsent(otherUserId, k -> new ArrayList<>()).add(msg);
-        }
-
-        // Build conversation DTOs
-        List<ConversationDTO> conversations = new ArrayList<>();
-
-        for (Map.Entry<Long, List<Message>> entry : messagesByUser.entrySet()) {
-            Long otherUserId = entry.getKey();
-            List<Message> convMessages = entry.getValue();
-
-            // Get the other user
-            User otherUser = em.find(User.class, otherUserId);
-            if (otherUser == null) continue;
-
-            // Get the most recent message
-            Message lastMessage = convMessages.get(0);
-
-            // Count unread messages from this user
-            Long unreadCount = em.createNamedQuery("Message.countUnreadFromUser", Long.class)
-                    .setParameter("recipientId", userId)
-                    .setParameter("senderId", otherUserId)
-                    .getSingleResult();
-
-            ConversationDTO conv = new ConversationDTO(
-                    UserDTO.fromEntity(otherUser),
-                    MessageDTO.fromEntity(lastMessage),
-                    unreadCount
-            );
-            conversations.add(conv);
-        }
-
-        // Sort by last message date (most recent first)
-        conversations.sort((a, b) -> {
-            if (a.getLastMessageAt() == null) return 1;
-            if (b.getLastMessageAt() == null) return -1;
-            return b.getLastMessageAt().compareTo(a.getLastMessageAt());
-        });
-
-        return conversations;
+        return conversations.stream()
+                .map(conversation -> {
+                    Message lastMessage = conversation.getLastMessage();
+                    ConversationDTO dto = new ConversationDTO(
+                            UserDTO.fromEntity(conversation.getOtherUser(userId)),
+                            lastMessage != null ? MessageDTO.fromEntity(lastMessage) : null,
+                            conversation.getUnreadCountFor(userId).longValue()
+                    );
+                    dto.setLastMessageAt(conversation.getLastMessageAt());
+                    return dto;
+                })
+                .collect(Collectors.toList());
     }
 
     public long getUnreadCount(Long userId) {
@@ -137,6 +119,9 @@ public class MessageService {
     public void markAsRead(Long messageId, Long userId) {
         Message message = em.find(Message.class, messageId);
         if (message != null && message.getRecipient().getId().equals(userId)) {
+            if (!message.getIsRead()) {
+                decrementConversationUnread(userId, message.getSender().getId());
+            }
             message.setIsRead(true);
             em.merge(message);
         }
@@ -148,6 +133,14 @@ public class MessageService {
                 .setParameter("userId", userId)
                 .setParameter("otherUserId", otherUserId)
                 .executeUpdate();
+
+        boolean userIsLow = userId < otherUserId;
+        em.createQuery(userIsLow
+                        ? "UPDATE Conversation c SET c.lowUnreadCount = 0 WHERE c.userLow.id = :lowId AND c.userHigh.id = :highId"
+                        : "UPDATE Conversation c SET c.highUnreadCount = 0 WHERE c.userLow.id = :lowId AND c.userHigh.id = :highId")
+                .setParameter("lowId", Math.min(userId, otherUserId))
+                .setParameter("highId", Math.max(userId, otherUserId))
+                .executeUpdate();
     }
 
     public List<MessageDTO> getMessagesByIdea(Long ideaId, int limit) {
@@ -161,6 +154,46 @@ public class MessageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Upserts the conversation row of the message's user pair: sets the last message and
+     * increments the recipient's unread counter. Atomic, so concurrent first messages cannot collide.
+     */
+    private void updateConversation(Message message) {
+        Long senderId = message.getSender().getId();
+        Long recipientId = message.getRecipient().getId();
+        boolean recipientIsLow = recipientId < senderId;
+        Timestamp sentAt = Timestamp.valueOf(message.getCreatedAt());
+
+        em.createNativeQuery(
+                "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_at, " +
+                "low_unread_count, high_unread_count, created_at, updated_at) " +
+                "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?4, ?4) " +
+                "ON CONFLICT (user_low_id, user_high_id) DO UPDATE SET " +
+                "last_message_id = CASE WHEN conversations.last_message_id IS NULL OR EXCLUDED.last_message_id > conversations.last_message_id " +
+                "THEN EXCLUDED.last_message_id ELSE conversations.last_message_id END, " +
+                "last_message_at = GREATEST(conversations.last_message_at, EXCLUDED.last_message_at), " +
+                "low_unread_count = conversations.low_unread_count + EXCLUDED.low_unread_count, " +
+                "high_unread_count = conversations.high_unread_count + EXCLUDED.high_unread_count, " +
+                "updated_at = EXCLUDED.updated_at")
+                .setParameter(1, Math.min(senderId, recipientId))
+                .setParameter(2, Math.max(senderId, recipientId))
+                .setParameter(3, message.getId())
+                .setParameter(4, sentAt)
+                .setParameter(5, recipientIsLow ? 1 : 0)
+                .setParameter(6, recipientIsLow ? 0 : 1)
+                .executeUpdate();
+    }
+
+    private void decrementConversationUnread(Long userId, Long otherUserId) {
+        boolean userIsLow = userId < otherUserId;
+        em.createQuery(userIsLow
+                        ? "UPDATE Conversation c SET c.lowUnreadCount = c.lowUnreadCount - 1 WHERE c.userLow.id = :lowId AND c.userHigh.id = :highId AND c.lowUnreadCount > 0"
+                        : "UPDATE Conversation c SET c.highUnreadCount = c.highUnreadCount - 1 WHERE c.userLow.id = :lowId AND c.userHigh.id = :highId AND c.highUnreadCount > 0")
+                .setParameter("lowId", Math.min(userId, otherUserId))
+                .setParameter("highId", Math.max(userId, otherUserId))
+                .executeUpdate();
+    }
+
     private void notifyNewMessage(User recipient, User sender, String content, Long ideaId) {
         Notification notification = new Notification();
         notification.setUser(recipient);
@@ -181,4 +214,8 @@ public class MessageService {
         if (text.length() <= maxLength) return text;
         return text.substring(0, maxLength - 3) + "...";
     }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 }
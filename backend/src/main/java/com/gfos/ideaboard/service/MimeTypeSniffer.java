@@ -0,0 +1,89 @@
+package com.gfos.ideaboard.service;
+
+import java.util.Locale;
+
+/**
+ * Determines the MIME type of an upload from its first bytes (magic numbers), cross-checked against
+ * the file extension. Container formats (OLE2, ZIP) and plain text are told apart by the extension.
+ */
+public final class MimeTypeSniffer {
+
+    /** Number of leading bytes needed for detection. */
+    public static final int HEADER_LENGTH = 16;
+
+    private MimeTypeSniffer() {
+    }
+
+    /**
+     * Returns the MIME type implied by the file extension, or application/octet-stream.
+     */
+    public static String fromExtension(String filename) {
+        if (filename == null) return "application/octet-stream";
+        String lower = filename.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+        if (lower.endsWith(".png")) return "image/png";
+        if (lower.endsWith(".gif")) return "image/gif";
+        if (lower.endsWith(".webp")) return "image/webp";
+        if (lower.endsWith(".pdf")) return "application/pdf";
+        if (lower.endsWith(".doc")) return "application/msword";
+        if (lower.endsWith(".docx")) return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+        if (lower.endsWith(".xls")) return "application/vnd.ms-excel";
+        if (lower.endsWith(".xlsx")) return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+        if (lower.endsWith(".txt")) return "text/plain";
+        if (lower.endsWith(".csv")) return "text/csv";
+        return "application/octet-stream";
+    }
+
+    /**
+     * Detects the MIME type from the first {@code length} bytes of the content.
+     * Returns null if the content does not match any supported type or contradicts the extension.
+     */
+    public static String detect(byte[] header, int length, String filename) {
+        String declared = fromExtension(filename);
+
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return "image/png";
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(header, length, 'R', 'I', 'F', 'F') && length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') return "image/webp";
+        if (startsWith(header, length, '%', 'P', 'D', 'F', '-')) return "application/pdf";
+
+        // OLE2-Container (alte Office-Formate): Typ über die Endung
+        if (startsWith(header, length, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return declared.equals("application/msword") || declared.equals("application/vnd.ms-excel")
+                    ? declared : null;
+        }
+
+        // ZIP-Container (OOXML): Typ über die Endung
+        if (startsWith(header, length, 'P', 'K', 0x03, 0x04)) {
+            return declared.startsWith("application/vnd.openxmlformats-officedocument.") ? declared : null;
+        }
+
+        // Text hat keine Signatur: nur mit passender Endung und ohne Binärdaten
+        if (declared.startsWith("text/") && !containsNul(header, length)) {
+            return declared;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsNul(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            if (header[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
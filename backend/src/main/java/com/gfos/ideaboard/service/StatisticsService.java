@@ -0,0 +1,146 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.entity.DailyActivity;
+import com.gfos.ideaboard.entity.Idea;
+import com.gfos.ideaboard.entity.IdeaStatus;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the platform statistics from two aggregate statements and the daily activity rollups and caches them for all users.
+ * A fresh snapshot is served as is; a stale one is served immediately while a single background
+ * refresh runs (stale-while-revalidate). Only a missing or very old snapshot makes callers wait.
+ */
+@ApplicationScoped
+public class StatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+
+    private static final Duration FRESH_FOR = Duration.ofSeconds(30);
+    private static final Duration MAX_STALE = Duration.ofMinutes(5);
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private DailyActivityService dailyActivityService;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private volatile StatisticsSnapshot snapshot;
+
+    // Laufende Neuberechnung, damit gleichzeitige Anfragen nur eine auslösen
+    private final AtomicReference<CompletableFuture<StatisticsSnapshot>> refreshing = new AtomicReference<>();
+
+    /**
+     * Returns the current statistics, at most {@link #MAX_STALE} old.
+     */
+    public StatisticsSnapshot getSnapshot() {
+        StatisticsSnapshot current = snapshot;
+        if (current != null) {
+            Duration age = Duration.between(current.computedAt, LocalDateTime.now());
+            if (age.compareTo(FRESH_FOR) < 0) {
+                return current;
+            }
+            if (age.compareTo(MAX_STALE) < 0) {
+                // Veralteten Stand sofort liefern und im Hintergrund neu berechnen
+                refresh();
+                return current;
+            }
+        }
+
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            if (current != null) {
+                return current;
+            }
+            throw ApiException.serverError("Statistik konnte nicht berechnet werden");
+        }
+    }
+
+    private CompletableFuture<StatisticsSnapshot> refresh() {
+        CompletableFuture<StatisticsSnapshot> pending = new CompletableFuture<>();
+        CompletableFuture<StatisticsSnapshot> running = refreshing.compareAndExchange(null, pending);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    StatisticsSnapshot computed = compute();
+                    snapshot = computed;
+                    refreshing.set(null);
+                    pending.complete(computed);
+                } catch (RuntimeException e) {
+                    logger.error("Berechnen der Statistik fehlgeschlagen", e);
+                    refreshing.set(null);
+                    pending.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(null);
+            pending.completeExceptionally(e);
+        }
+        return pending;
+    }
+
+    private StatisticsSnapshot compute() {
+        LocalDateTime now = LocalDateTime.now();
+        // Woche beginnt am Sonntag, wie bisher im Dashboard
+        LocalDate weekStart = now.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+
+        Object[] totals = (Object[]) em.createNativeQuery(Idea.STATISTICS_SQL)
+                .setParameter(1, Timestamp.valueOf(weekStart.atStartOfDay()))
+                .getSingleResult();
+        @SuppressWarnings("unchecked")
+        List<Object[]> categories = em.createNamedQuery("Idea.countByCategory").getResultList();
+        // Tagesverlauf aus den Tagesverdichtungen statt aus der Ideentabelle
+        List<DailyActivity> days = dailyActivityService.findRange(weekStart, now.toLocalDate());
+
+        StatisticsSnapshot stats = new StatisticsSnapshot();
+        stats.totalIdeas = ((Number) totals[0]).longValue();
+        stats.ideasByStatus.put(IdeaStatus.CONCEPT, ((Number) totals[1]).longValue());
+        stats.ideasByStatus.put(IdeaStatus.IN_PROGRESS, ((Number) totals[2]).longValue());
+        stats.ideasByStatus.put(IdeaStatus.COMPLETED, ((Number) totals[3]).longValue());
+        stats.ideasThisWeek = ((Number) totals[4]).longValue();
+        stats.totalUsers = ((Number) totals[5]).longValue();
+        stats.activeUsers = ((Number) totals[6]).longValue();
+        stats.totalLikes = ((Number) totals[7]).longValue();
+        stats.totalComments = ((Number) totals[8]).longValue();
+        stats.activeSurveys = ((Number) totals[9]).longValue();
+
+        // Nach Anzahl absteigend sortiert
+        for (Object[] row : categories) {
+            stats.ideasByCategory.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        for (DailyActivity day : days) {
+            if (day.getIdeas() > 0) {
+                stats.ideasPerDayThisWeek.put(day.getDay(), day.getIdeas().longValue());
+            }
+        }
+
+        stats.computedAt = now;
+        return stats;
+    }
+}
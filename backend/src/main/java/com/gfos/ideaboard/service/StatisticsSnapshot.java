@@ -0,0 +1,77 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.entity.IdeaStatus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Platform-wide figures for the dashboard and the statistics exports, computed at one point in time.
+ * Instances are shared between requests and must not be modified after they are published.
+ */
+public final class StatisticsSnapshot {
+
+    long totalIdeas;
+    long ideasThisWeek;
+    final Map<IdeaStatus, Long> ideasByStatus = new EnumMap<>(IdeaStatus.class);
+    long totalUsers;
+    long activeUsers;
+    long totalLikes;
+    long totalComments;
+    long activeSurveys;
+    // Nach Anzahl absteigend sortiert
+    final Map<String, Long> ideasByCategory = new LinkedHashMap<>();
+    // Nach Tag aufsteigend sortiert, nur Tage mit neuen Ideen
+    final Map<LocalDate, Long> ideasPerDayThisWeek = new LinkedHashMap<>();
+    LocalDateTime computedAt;
+
+    StatisticsSnapshot() {
+    }
+
+    public long getTotalIdeas() {
+        return totalIdeas;
+    }
+
+    public long getIdeasThisWeek() {
+        return ideasThisWeek;
+    }
+
+    public Map<IdeaStatus, Long> getIdeasByStatus() {
+        return Collections.unmodifiableMap(ideasByStatus);
+    }
+
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public long getTotalLikes() {
+        return totalLikes;
+    }
+
+    public long getTotalComments() {
+        return totalComments;
+    }
+
+    public long getActiveSurveys() {
+        return activeSurveys;
+    }
+
+    public Map<String, Long> getIdeasByCategory() {
+        return Collections.unmodifiableMap(ideasByCategory);
+    }
+
+    public Map<LocalDate, Long> getIdeasPerDayThisWeek() {
+        return Collections.unmodifiableMap(ideasPerDayThisWeek);
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+}
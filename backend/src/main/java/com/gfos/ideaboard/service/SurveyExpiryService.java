@@ -0,0 +1,116 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Closes surveys whose expiry date has passed and freezes their results.
+ * Each survey is closed in its own transaction, so one failure does not hold back the others.
+ */
+@ApplicationScoped
+public class SurveyExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyExpiryService.class);
+
+    private static final long CHECK_INTERVAL_SECONDS = 60;
+    private static final int BATCH_SIZE = 100;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private SurveyService surveyService;
+
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Inject
+    private SurveyResultsBroadcaster resultsBroadcaster;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> expiryTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        expiryTask = scheduler.scheduleWithFixedDelay(this::closeExpiredSafely,
+                CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (expiryTask != null) {
+            expiryTask.cancel(false);
+        }
+    }
+
+    /**
+     * Closes all surveys that expired up to now. Returns the number of surveys closed.
+     * A survey that fails is skipped for the rest of the run and retried on the next one.
+     */
+    public int closeExpired() {
+        int closed = 0;
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> failedIds = new HashSet<>();
+        List<Long> expiredIds;
+        do {
+            expiredIds = findExpiredIds(now, failedIds);
+            for (Long surveyId : expiredIds) {
+                try {
+                    if (surveyService.closeSurvey(surveyId)) {
+                        closed++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Schließen der abgelaufenen Umfrage {} fehlgeschlagen", surveyId, e);
+                    failedIds.add(surveyId);
+                    continue;
+                }
+                // Live-Zählung wird nicht mehr gebraucht, Zuschauer erhalten das eingefrorene Ergebnis
+                tallyService.release(surveyId);
+                resultsBroadcaster.closeWithFinalResults(surveyId);
+            }
+        } while (expiredIds.size() == BATCH_SIZE);
+        return closed;
+    }
+
+    private List<Long> findExpiredIds(LocalDateTime now, Set<Long> failedIds) {
+        // Fehlgeschlagene Umfragen ausklammern, sonst stehen sie in jedem Stapel wieder vorn
+        TypedQuery<Long> query;
+        if (failedIds.isEmpty()) {
+            query = em.createNamedQuery("Survey.findExpiredIds", Long.class);
+        } else {
+            query = em.createNamedQuery("Survey.findExpiredIdsExcept", Long.class)
+                    .setParameter("excludedIds", failedIds);
+        }
+        return query.setParameter("now", now)
+                .setMaxResults(BATCH_SIZE)
+                .getResultList();
+    }
+
+    private void closeExpiredSafely() {
+        try {
+            int closed = closeExpired();
+            if (closed > 0) {
+                logger.info("{} abgelaufene Umfrage(n) geschlossen", closed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Prüfen auf abgelaufene Umfragen fehlgeschlagen", e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.gfos.ideaboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfos.ideaboard.dto.SurveyResultsDTO;
+import com.gfos.ideaboard.entity.Survey;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes live survey results to SSE subscribers.
+ * Every tick takes one tally snapshot per watched survey and sends the same event to all of its viewers,
+ * only when the counts changed, so the cost does not grow with the number of viewers.
+ */
+@ApplicationScoped
+public class SurveyResultsBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyResultsBroadcaster.class);
+
+    // At most 4 result events per second and survey
+    private static final long TICK_INTERVAL_MS = 250;
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Inject
+    private SurveyService surveyService;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> tickTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        tickTask = scheduler.scheduleWithFixedDelay(this::tickSafely,
+                TICK_INTERVAL_MS, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+        }
+        channels.keySet().forEach(this::close);
+    }
+
+    /**
+     * Registers a viewer for the results of a survey. A viewer joining a watched survey gets the
+     * latest event right away; otherwise the first event follows with the next tick.
+     */
+    public void subscribe(Long surveyId, SseEventSink sink, Sse sse) {
+        Survey survey = em.find(Survey.class, surveyId);
+        if (survey == null) {
+            throw ApiException.notFound("Survey not found");
+        }
+        if (survey.getClosedAt() != null) {
+            // Geschlossene Umfrage: eingefrorenes Ergebnis einmal senden und Stream beenden
+            sendFinal(sink, sse, surveyId);
+            return;
+        }
+        tallyService.getTally(surveyId);
+
+        Channel channel = channels.compute(surveyId, (id, existing) -> {
+            Channel c = existing != null ? existing : new Channel(sse);
+            c.sinks.add(sink);
+            return c;
+        });
+
+        OutboundSseEvent latest = channel.lastEvent;
+        if (latest != null) {
+            send(channel, sink, latest);
+        }
+    }
+
+    /**
+     * Ends the stream of a deleted survey for all of its viewers.
+     */
+    public void close(Long surveyId) {
+        Channel channel = channels.remove(surveyId);
+        if (channel != null) {
+            channel.sinks.forEach(SseEventSink::close);
+        }
+    }
+
+    /**
+     * Sends the frozen results of a closed survey to all of its viewers and ends the stream.
+     */
+    public void closeWithFinalResults(Long surveyId) {
+        Channel channel = channels.remove(surveyId);
+        if (channel != null) {
+            channel.sinks.forEach(sink -> sendFinal(sink, channel.sse, surveyId));
+        }
+    }
+
+    private void sendFinal(SseEventSink sink, Sse sse, Long surveyId) {
+        Map<Long, Long> frozen = surveyService.getFrozenResults(List.of(surveyId)).getOrDefault(surveyId, Map.of());
+        OutboundSseEvent event = resultsEvent(sse, surveyId, frozen);
+        try {
+            sink.send(event).whenComplete((result, error) -> sink.close());
+        } catch (IllegalStateException e) {
+            sink.close();
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.error("Senden der Umfrage-Ergebnisse fehlgeschlagen", e);
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        channels.forEach((surveyId, channel) -> {
+            channel.sinks.removeIf(SseEventSink::isClosed);
+            if (channels.computeIfPresent(surveyId, (id, c) -> c.sinks.isEmpty() ? null : c) == null) {
+                return;
+            }
+
+            SurveyTally tally = tallyService.getLoadedTally(surveyId);
+            if (tally == null) {
+                return;
+            }
+
+            Map<Long, Long> snapshot = tally.snapshot();
+            if (!snapshot.equals(channel.lastSnapshot)) {
+                OutboundSseEvent event = resultsEvent(channel.sse, surveyId, snapshot);
+                channel.lastSnapshot = snapshot;
+                channel.lastEvent = event;
+                broadcast(channel, event, now);
+            } else if (now - channel.lastSentAt >= HEARTBEAT_INTERVAL_MS) {
+                // Kommentar-Event hält die Verbindung offen und erkennt getrennte Clients
+                broadcast(channel, channel.sse.newEventBuilder().comment("heartbeat").build(), now);
+            }
+        });
+    }
+
+    private void broadcast(Channel channel, OutboundSseEvent event, long now) {
+        channel.lastSentAt = now;
+        channel.sinks.forEach(sink -> send(channel, sink, event));
+    }
+
+    private void send(Channel channel, SseEventSink sink, OutboundSseEvent event) {
+        try {
+            sink.send(event).whenComplete((result, error) -> {
+                if (error != null) {
+                    drop(channel, sink);
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Client hat die Verbindung zwischenzeitlich geschlossen
+            drop(channel, sink);
+        }
+    }
+
+    private void drop(Channel channel, SseEventSink sink) {
+        channel.sinks.remove(sink);
+        sink.close();
+    }
+
+    private OutboundSseEvent resultsEvent(Sse sse, Long surveyId, Map<Long, Long> voteCounts) {
+        return sse.newEventBuilder()
+                .name("results")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(String.class, toJson(SurveyResultsDTO.fromSnapshot(surveyId, voteCounts)))
+                .build();
+    }
+
+    private String toJson(SurveyResultsDTO results) {
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Umfrage-Ergebnisse konnten nicht serialisiert werden", e);
+        }
+    }
+
+    /**
+     * Viewers of one survey and the last event sent to them. Only the tick thread writes the event fields.
+     */
+    private static class Channel {
+        private final Sse sse;
+        private final Set<SseEventSink> sinks = ConcurrentHashMap.newKeySet();
+        private volatile Map<Long, Long> lastSnapshot;
+        private volatile OutboundSseEvent lastEvent;
+        private volatile long lastSentAt;
+
+        private Channel(Sse sse) {
+            this.sse = sse;
+        }
+    }
+}
@@ -4,10 +4,17 @@ import com.gfos.ideaboard.dto.SurveyDTO;
 import com.gfos.ideaboard.entity.*;
 import com.gfos.ideaboard.exception.ApiException;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -16,24 +23,25 @@ public class SurveyService {
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Inject
+    private SurveyResultsBroadcaster resultsBroadcaster;
+
     public List<SurveyDTO> getSurveys(int page, int size, Long userId) {
-        List<Survey> surveys = em.createQuery(
-                "SELECT s FROM Survey s ORDER BY s.createdAt DESC", Survey.class)
+        List<Survey> surveys = em.createNamedQuery("Survey.findAll", Survey.class)
                 .setFirstResult(page * size)
                 .setMaxResults(size)
                 .getResultList();
-        return surveys.stream()
-                .map(s -> SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId)))
-                .collect(Collectors.toList());
+        return toDTOs(surveys, userId);
     }
 
     public List<SurveyDTO> getActiveSurveys(Long userId) {
         List<Survey> surveys = em.createNamedQuery("Survey.findActive", Survey.class)
                 .setMaxResults(10)
                 .getResultList();
-        return surveys.stream()
-                .map(s -> SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId)))
-                .collect(Collectors.toList());
+        return toDTOs(surveys, userId);
     }
 
     public SurveyDTO getSurveyById(Long id, Long userId) {
@@ -41,16 +49,21 @@ public class SurveyService {
         if (survey == null) {
             throw ApiException.notFound("Survey not found");
         }
-        return SurveyDTO.fromEntity(survey, getUserVotedOptionIds(id, userId));
+        return toDTO(survey, getUserVotedOptionIds(id, userId));
     }
 
     @Transactional
     public SurveyDTO createSurvey(String question, String description, List<String> options,
-                                   Boolean isAnonymous, Boolean allowMultipleVotes, Long creatorId) {
+                                   Boolean isAnonymous, Boolean allowMultipleVotes, LocalDateTime expiresAt,
+                                   Long creatorId) {
         if (options == null || options.size() < 2) {
             throw ApiException.badRequest("At least 2 options are required");
         }
 
+        if (expiresAt != null && !expiresAt.isAfter(LocalDateTime.now())) {
+            throw ApiException.badRequest("Expiry date must be in the future");
+        }
+
         User creator = em.find(User.class, creatorId);
         if (creator == null) {
             throw ApiException.notFound("User not found");
@@ -63,6 +76,7 @@ public class SurveyService {
         survey.setIsActive(true);
         survey.setIsAnonymous(isAnonymous != null ? isAnonymous : false);
         survey.setAllowMultipleVotes(allowMultipleVotes != null ? allowMultipleVotes : false);
+        survey.setExpiresAt(expiresAt);
 
         em.persist(survey);
 
@@ -78,6 +92,11 @@ public class SurveyService {
         return SurveyDTO.fromEntity(survey, List.of());
     }
 
+    /**
+     * Casts votes. Duplicate votes are rejected by the database (unique vote rows, and one participant
+     * row per user for single-choice surveys); counts are taken from the in-memory tally, which is
+     * written through to the counter columns in batches instead of by a per-vote trigger.
+     */
     @Transactional
     public SurveyDTO vote(Long surveyId, List<Long> optionIds, Long userId) {
         Survey survey = em.find(Survey.class, surveyId);
@@ -85,58 +104,55 @@ public class SurveyService {
             throw ApiException.notFound("Survey not found");
         }
 
-        if (!survey.getIsActive()) {
+        // Expired surveys are closed by SurveyExpiryService; until then they no longer accept votes
+        boolean expired = survey.getExpiresAt() != null && !survey.getExpiresAt().isAfter(LocalDateTime.now());
+        if (expired || em.createNativeQuery(Survey.LOCK_OPEN_SQL)
+                .setParameter(1, surveyId)
+                .getResultList()
+                .isEmpty()) {
             throw ApiException.badRequest("Survey is closed");
         }
 
+        if (!survey.getAllowMultipleVotes() && optionIds.size() > 1) {
+            throw ApiException.badRequest("Only one option can be selected");
+        }
+
         User user = em.find(User.class, userId);
         if (user == null) {
             throw ApiException.notFound("User not found");
         }
 
-        // Check if already voted
-        List<Long> existingVotes = getUserVotedOptionIds(surveyId, userId);
-        if (!existingVotes.isEmpty() && !survey.getAllowMultipleVotes()) {
-            throw ApiException.conflict("Already voted on this survey");
-        }
-
         // Validate options belong to this survey
-        List<Long> validOptionIds = survey.getOptions().stream()
-                .map(SurveyOption::getId)
-                .collect(Collectors.toList());
-
+        SurveyTally tally = tallyService.getTally(surveyId);
         for (Long optionId : optionIds) {
-            if (!validOptionIds.contains(optionId)) {
+            if (!tally.hasOption(optionId)) {
                 throw ApiException.badRequest("Invalid option ID: " + optionId);
             }
-
-            // Check if already voted for this option
-            if (existingVotes.contains(optionId)) {
-                continue;
-            }
-
-            SurveyOption option = em.find(SurveyOption.class, optionId);
-
-            SurveyVote vote = new SurveyVote();
-            vote.setSurvey(survey);
-            vote.setOption(option);
-            vote.setUser(user);
-            em.persist(vote);
-
-            // Note: vote_count and total_votes are automatically updated by database trigger
-            // Do NOT manually increment here to avoid double counting
         }
 
-        // Flush to ensure triggers have run before returning
-        em.flush();
+        int newParticipant = em.createNativeQuery(SurveyVote.INSERT_PARTICIPANT_SQL)
+                .setParameter(1, surveyId)
+                .setParameter(2, userId)
+                .executeUpdate();
+        if (newParticipant == 0 && !survey.getAllowMultipleVotes()) {
+            throw ApiException.conflict("Already voted on this survey");
+        }
 
-        // Refresh entities to get updated counts from database triggers
-        em.refresh(survey);
-        for (SurveyOption opt : survey.getOptions()) {
-            em.refresh(opt);
+        List<Long> insertedOptionIds = new ArrayList<>();
+        for (Long optionId : new LinkedHashSet<>(optionIds)) {
+            int inserted = em.createNativeQuery(SurveyVote.INSERT_VOTE_SQL)
+                    .setParameter(1, surveyId)
+                    .setParameter(2, optionId)
+                    .setParameter(3, userId)
+                    .executeUpdate();
+            if (inserted > 0) {
+                insertedOptionIds.add(optionId);
+            }
         }
 
-        return SurveyDTO.fromEntity(survey, getUserVotedOptionIds(surveyId, userId));
+        tallyService.recordVotes(surveyId, insertedOptionIds);
+
+        return toDTO(survey, getUserVotedOptionIds(surveyId, userId));
     }
 
     @Transactional
@@ -153,6 +169,120 @@ public class SurveyService {
         }
 
         em.remove(survey);
+        tallyService.evict(id);
+        resultsBroadcaster.close(id);
+    }
+
+    /**
+     * Closes a survey and freezes its final vote counts into survey_results.
+     * The row lock waits for in-flight votes to commit, so the frozen counts are exact;
+     * votes arriving later find the survey closed. Returns false if it was already closed.
+     */
+    @Transactional
+    public boolean closeSurvey(Long id) {
+        Survey survey = em.find(Survey.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (survey == null || survey.getClosedAt() != null) {
+            return false;
+        }
+
+        Map<Long, Long> counts = new HashMap<>();
+        List<Object[]> rows = em.createNamedQuery("SurveyVote.countBySurveyGroupedByOption", Object[].class)
+                .setParameter("surveyId", id)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (SurveyOption option : survey.getOptions()) {
+            em.persist(new SurveyResult(survey, option, counts.getOrDefault(option.getId(), 0L).intValue(), now));
+        }
+
+        survey.setIsActive(false);
+        survey.setClosedAt(now);
+        return true;
+    }
+
+    /**
+     * Returns the frozen vote counts (optionId -> count) of the given closed surveys.
+     */
+    public Map<Long, Map<Long, Long>> getFrozenResults(List<Long> surveyIds) {
+        Map<Long, Map<Long, Long>> results = new HashMap<>();
+        if (surveyIds.isEmpty()) {
+            return results;
+        }
+        List<Object[]> rows = em.createNamedQuery("SurveyResult.findBySurveys", Object[].class)
+                .setParameter("surveyIds", surveyIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            results.computeIfAbsent((Long) row[0], k -> new HashMap<>())
+                    .put((Long) row[1], ((Number) row[2]).longValue());
+        }
+        return results;
+    }
+
+    /**
+     * Converts a page of surveys with a constant number of queries: one for the options
+     * and one for the current user's votes, regardless of the page size
+     * (plus one for the frozen results if the page contains closed surveys).
+     */
+    private List<SurveyDTO> toDTOs(List<Survey> surveys, Long userId) {
+        if (surveys.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> surveyIds = surveys.stream()
+                .map(Survey::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<SurveyOption>> optionsBySurvey = new HashMap<>();
+        List<Object[]> options = em.createNamedQuery("SurveyOption.findBySurveys", Object[].class)
+                .setParameter("surveyIds", surveyIds)
+                .getResultList();
+        for (Object[] row : options) {
+            optionsBySurvey.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((SurveyOption) row[1]);
+        }
+
+        Map<Long, List<Long>> votedOptionIdsBySurvey = new HashMap<>();
+        if (userId != null) {
+            List<Object[]> votes = em.createNamedQuery("SurveyVote.findOptionIdsByUserAndSurveys", Object[].class)
+                    .setParameter("userId", userId)
+                    .setParameter("surveyIds", surveyIds)
+                    .getResultList();
+            for (Object[] row : votes) {
+                votedOptionIdsBySurvey.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+            }
+        }
+
+        Map<Long, Map<Long, Long>> frozenResults = getFrozenResults(surveys.stream()
+                .filter(survey -> survey.getClosedAt() != null)
+                .map(Survey::getId)
+                .collect(Collectors.toList()));
+
+        return surveys.stream()
+                .map(survey -> SurveyDTO.fromEntity(survey,
+                        optionsBySurvey.getOrDefault(survey.getId(), List.of()),
+                        votedOptionIdsBySurvey.getOrDefault(survey.getId(), List.of()),
+                        survey.getClosedAt() != null
+                                ? frozenResults.getOrDefault(survey.getId(), Map.of())
+                                : liveCounts(survey.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the DTO. Closed surveys use their frozen results; open ones prefer the in-memory tally
+     * over the counter columns, which lag by up to one flush.
+     */
+    private SurveyDTO toDTO(Survey survey, List<Long> userVotedOptionIds) {
+        Map<Long, Long> voteCounts = survey.getClosedAt() != null
+                ? getFrozenResults(List.of(survey.getId())).getOrDefault(survey.getId(), Map.of())
+                : liveCounts(survey.getId());
+        return SurveyDTO.fromEntity(survey, userVotedOptionIds, voteCounts);
+    }
+
+    private Map<Long, Long> liveCounts(Long surveyId) {
+        SurveyTally tally = tallyService.getLoadedTally(surveyId);
+        return tally != null ? tally.snapshot() : null;
     }
 
     private List<Long> getUserVotedOptionIds(Long surveyId, Long userId) {
@@ -0,0 +1,56 @@
+package com.gfos.ideaboard.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory vote tally of one survey. The option set is fixed at construction;
+ * counters are striped (LongAdder), so concurrent voters do not contend on a single value.
+ */
+public class SurveyTally {
+
+    private final Map<Long, LongAdder> optionCounts;
+
+    /**
+     * Creates a tally from the initial vote count per option, in display order.
+     */
+    public SurveyTally(Map<Long, Long> initialCounts) {
+        Map<Long, LongAdder> counts = new LinkedHashMap<>();
+        initialCounts.forEach((optionId, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            counts.put(optionId, adder);
+        });
+        this.optionCounts = Collections.unmodifiableMap(counts);
+    }
+
+    public boolean hasOption(Long optionId) {
+        return optionCounts.containsKey(optionId);
+    }
+
+    public void add(Long optionId, long delta) {
+        LongAdder adder = optionCounts.get(optionId);
+        if (adder != null) {
+            adder.add(delta);
+        }
+    }
+
+    /**
+     * Returns the current vote count per option, in display order.
+     */
+    public Map<Long, Long> snapshot() {
+        Map<Long, Long> snapshot = new LinkedHashMap<>();
+        optionCounts.forEach((optionId, adder) -> snapshot.put(optionId, adder.sum()));
+        return snapshot;
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder adder : optionCounts.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+}
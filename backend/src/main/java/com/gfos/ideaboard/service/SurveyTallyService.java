@@ -0,0 +1,206 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the vote tallies of all surveys in memory and writes committed votes through to
+ * survey_options.vote_count and surveys.total_votes asynchronously, in batches.
+ * The vote rows themselves (and duplicate-vote enforcement) stay in the database.
+ */
+@ApplicationScoped
+public class SurveyTallyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyTallyService.class);
+
+    private static final long FLUSH_INTERVAL_MS = 500;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private SurveyTallyWriter writer;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    private final Map<Long, SurveyTally> tallies = new ConcurrentHashMap<>();
+
+    // Committed votes not yet written to the counter columns: surveyId -> optionId -> delta
+    private final Map<Long, Map<Long, AtomicLong>> pendingDeltas = new ConcurrentHashMap<>();
+
+    // Loads take the read lock, flushes the write lock, so a load never sees a half-written batch
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private ScheduledFuture<?> flushTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        flushTask = scheduler.scheduleWithFixedDelay(this::flushSafely,
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flushSafely();
+    }
+
+    /**
+     * Returns the tally of a survey, loading it from the counter columns plus unflushed deltas on first access.
+     */
+    public SurveyTally getTally(Long surveyId) {
+        return tallies.computeIfAbsent(surveyId, this::loadTally);
+    }
+
+    /**
+     * Returns the tally of a survey if it is already in memory, without loading it.
+     */
+    public SurveyTally getLoadedTally(Long surveyId) {
+        return tallies.get(surveyId);
+    }
+
+    /**
+     * Records newly inserted votes. The tally is updated immediately so the voter sees the result;
+     * the write-through delta is only queued once the surrounding transaction commits,
+     * and the tally is reverted if it rolls back.
+     */
+    public void recordVotes(Long surveyId, List<Long> optionIds) {
+        if (optionIds.isEmpty()) {
+            return;
+        }
+        SurveyTally tally = getTally(surveyId);
+        optionIds.forEach(optionId -> tally.add(optionId, 1));
+
+        if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            txRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        queueDeltas(surveyId, optionIds);
+                    } else {
+                        optionIds.forEach(optionId -> tally.add(optionId, -1));
+                    }
+                }
+            });
+        } else {
+            queueDeltas(surveyId, optionIds);
+        }
+    }
+
+    /**
+     * Drops the in-memory tally of a closed survey. Its queued deltas are still written by the next flush.
+     */
+    public void release(Long surveyId) {
+        tallies.remove(surveyId);
+    }
+
+    /**
+     * Drops the tally of a deleted survey.
+     */
+    public void evict(Long surveyId) {
+        tallies.remove(surveyId);
+        pendingDeltas.remove(surveyId);
+    }
+
+    /**
+     * Writes all queued deltas in one transaction. On failure the deltas are queued again.
+     */
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            Map<Long, Map<Long, Long>> batch = drainPending();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                writer.applyDeltas(batch);
+            } catch (RuntimeException e) {
+                batch.forEach((surveyId, deltas) -> deltas.forEach((optionId, delta) ->
+                        pendingCounter(surveyId, optionId).addAndGet(delta)));
+                throw e;
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Schreiben der Umfrage-Zählerstände fehlgeschlagen, erneuter Versuch beim nächsten Lauf", e);
+        }
+    }
+
+    private SurveyTally loadTally(Long surveyId) {
+        flushLock.readLock().lock();
+        try {
+            List<Object[]> rows = em.createNamedQuery("SurveyOption.findCountsBySurvey", Object[].class)
+                    .setParameter("surveyId", surveyId)
+                    .getResultList();
+
+            Map<Long, AtomicLong> pending = pendingDeltas.getOrDefault(surveyId, Map.of());
+            Map<Long, Long> counts = new LinkedHashMap<>();
+            for (Object[] row : rows) {
+                Long optionId = (Long) row[0];
+                long count = ((Number) row[1]).longValue();
+                AtomicLong delta = pending.get(optionId);
+                counts.put(optionId, delta != null ? count + delta.get() : count);
+            }
+            return new SurveyTally(counts);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    private void queueDeltas(Long surveyId, List<Long> optionIds) {
+        optionIds.forEach(optionId -> pendingCounter(surveyId, optionId).incrementAndGet());
+    }
+
+    private AtomicLong pendingCounter(Long surveyId, Long optionId) {
+        return pendingDeltas.computeIfAbsent(surveyId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(optionId, k -> new AtomicLong());
+    }
+
+    private Map<Long, Map<Long, Long>> drainPending() {
+        Map<Long, Map<Long, Long>> batch = new HashMap<>();
+        pendingDeltas.forEach((surveyId, deltas) -> deltas.forEach((optionId, counter) -> {
+            long delta = counter.getAndSet(0);
+            if (delta != 0) {
+                batch.computeIfAbsent(surveyId, k -> new HashMap<>()).put(optionId, delta);
+            }
+        }));
+        return batch;
+    }
+}
@@ -0,0 +1,37 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.Map;
+
+/**
+ * Applies batched vote deltas from SurveyTallyService to the counter columns.
+ * One UPDATE per touched option and one per touched survey, all in a single transaction.
+ */
+@ApplicationScoped
+public class SurveyTallyWriter {
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Transactional
+    public void applyDeltas(Map<Long, Map<Long, Long>> deltasBySurvey) {
+        deltasBySurvey.forEach((surveyId, optionDeltas) -> {
+            long surveyDelta = 0;
+            for (Map.Entry<Long, Long> entry : optionDeltas.entrySet()) {
+                em.createQuery("UPDATE SurveyOption o SET o.voteCount = o.voteCount + :delta WHERE o.id = :optionId")
+                        .setParameter("delta", entry.getValue().intValue())
+                        .setParameter("optionId", entry.getKey())
+                        .executeUpdate();
+                surveyDelta += entry.getValue();
+            }
+
+            em.createQuery("UPDATE Survey s SET s.totalVotes = s.totalVotes + :delta WHERE s.id = :surveyId")
+                    .setParameter("delta", (int) surveyDelta)
+                    .setParameter("surveyId", surveyId)
+                    .executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,243 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.core.Response;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates and caches downscaled previews of image attachments. Thumbnails are produced on a small,
+ * bounded worker pool right after upload and on demand; a full queue sheds work instead of piling it up.
+ * Thumbnails are keyed by content (blob hash), so identical images share them.
+ */
+@ApplicationScoped
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    /** Supported thumbnail sizes (longest edge in pixels). */
+    public static final List<Integer> SIZES = List.of(160, 320, 640);
+
+    private static final String THUMBNAIL_DIR = "thumbnails";
+    private static final int WORKER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 200;
+    private static final long ON_DEMAND_WAIT_SECONDS = 5;
+    // Schutz vor Dekompressionsbomben: größere Bilder werden nicht dekodiert
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final List<String> SUPPORTED_TYPES = List.of("image/jpeg", "image/png", "image/gif");
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public static boolean supports(String mimeType) {
+        return SUPPORTED_TYPES.contains(mimeType);
+    }
+
+    /**
+     * Queues generation of all thumbnail sizes for a new upload. Does nothing for unsupported types;
+     * if the queue is full, the thumbnails are generated on first request instead.
+     */
+    public void scheduleAll(String key, Path source, String mimeType) {
+        if (!supports(mimeType)) {
+            return;
+        }
+        for (Integer size : SIZES) {
+            try {
+                submit(key, source, mimeType, size);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Vorschau-Warteschlange voll, {} wird bei Bedarf erzeugt", key);
+                return;
+            } catch (RuntimeException e) {
+                // Der Upload selbst ist gespeichert, die Vorschau entsteht dann bei der ersten Anfrage
+                logger.warn("Vorschau {} ({} px) konnte nicht eingeplant werden", key, size, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached thumbnail, generating it on the worker pool if necessary.
+     */
+    public Path getThumbnail(String key, Path source, String mimeType, int size) {
+        if (!supports(mimeType)) {
+            throw ApiException.notFound("Für diesen Dateityp gibt es keine Vorschau");
+        }
+        if (!SIZES.contains(size)) {
+            throw ApiException.badRequest("Ungültige Vorschaugröße, erlaubt: " + SIZES);
+        }
+        Path target = thumbnailPath(key, mimeType, size);
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+
+        try {
+            return submit(key, source, mimeType, size).get(ON_DEMAND_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            throw new ApiException("Vorschau wird erstellt, bitte später erneut versuchen",
+                    Response.Status.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApiException.serverError("Vorschau konnte nicht erstellt werden");
+        } catch (ExecutionException e) {
+            logger.warn("Vorschau für {} konnte nicht erstellt werden", key, e.getCause());
+            throw ApiException.notFound("Vorschau konnte nicht erstellt werden");
+        }
+    }
+
+    /**
+     * Deletes all cached thumbnails of a content key.
+     */
+    public void deleteAll(String key) {
+        for (Integer size : SIZES) {
+            for (String extension : List.of(".jpg", ".png")) {
+                try {
+                    Files.deleteIfExists(Paths.get(FileService.UPLOAD_DIR, THUMBNAIL_DIR, size.toString(), key + extension));
+                } catch (IOException e) {
+                    logger.warn("Vorschau {} konnte nicht gelöscht werden", key, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Content type of the thumbnails generated for an image of the given type.
+     */
+    public static String thumbnailType(String mimeType) {
+        return "image/jpeg".equals(mimeType) ? "image/jpeg" : "image/png";
+    }
+
+    private CompletableFuture<Path> submit(String key, Path source, String mimeType, int size) {
+        Path target = thumbnailPath(key, mimeType, size);
+        // Gleiche Vorschau nur einmal gleichzeitig erzeugen
+        String id = target.toString();
+        CompletableFuture<Path> future = inFlight.computeIfAbsent(id,
+                k -> CompletableFuture.supplyAsync(() -> generate(source, target, mimeType, size), executor));
+        // Erst außerhalb von computeIfAbsent anhängen: ist die Erzeugung schon fertig, läuft der Callback sofort
+        // im aufrufenden Thread, und ein Entfernen innerhalb der Abbildungsfunktion wäre ein rekursives Update
+        future.whenComplete((result, error) -> inFlight.remove(id, future));
+        return future;
+    }
+
+    private Path generate(Path source, Path target, String mimeType, int size) {
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+        try {
+            BufferedImage original = readImage(source);
+            BufferedImage scaled = scale(original, size, !"image/jpeg".equals(mimeType));
+
+            // In Temp-Datei schreiben und atomar verschieben, damit nie halbe Vorschauen ausgeliefert werden
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(UUID.randomUUID() + ".part");
+            try {
+                String format = "image/jpeg".equals(mimeType) ? "jpg" : "png";
+                if (!ImageIO.write(scaled, format, temp.toFile())) {
+                    throw new IOException("Kein Writer für " + format);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedImage readImage(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Bildformat nicht lesbar: " + source);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Abmessungen aus dem Header prüfen, bevor die Pixel dekodiert werden
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Bild zu groß für eine Vorschau: " + source);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage original, int size, boolean keepAlpha) {
+        int width = original.getWidth();
+        int height = original.getHeight();
+        double factor = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        // Schrittweise halbieren ergibt bei starker Verkleinerung deutlich bessere Qualität als ein Schritt
+        BufferedImage current = original;
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        do {
+            int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private Path thumbnailPath(String key, String mimeType, int size) {
+        String extension = "image/jpeg".equals(mimeType) ? ".jpg" : ".png";
+        return Paths.get(FileService.UPLOAD_DIR, THUMBNAIL_DIR, String.valueOf(size), key + extension);
+    }
+}
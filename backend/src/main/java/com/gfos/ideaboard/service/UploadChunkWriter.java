@@ -0,0 +1,57 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.dto.UploadSessionDTO;
+import com.gfos.ideaboard.entity.UploadChunk;
+import com.gfos.ideaboard.entity.UploadSession;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+
+/**
+ * Commits a received upload chunk in its own short transaction, so no database connection is held
+ * while the chunk itself is transferred from the client.
+ */
+@ApplicationScoped
+public class UploadChunkWriter {
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    /**
+     * Moves a verified chunk file into place and records it, under a lock on the session so that a concurrent
+     * completion never sees half a chunk. Extends the session's expiry and returns its new state.
+     */
+    @Transactional
+    public UploadSessionDTO commitChunk(Long uploadId, int index, Path received, Path target,
+                                        long size, String sha256, LocalDateTime expiresAt) {
+        UploadSession session = em.find(UploadSession.class, uploadId, LockModeType.PESSIMISTIC_WRITE);
+        if (session == null) {
+            throw ApiException.notFound("Upload nicht gefunden");
+        }
+        try {
+            Files.move(received, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw ApiException.serverError("Fehler beim Speichern des Teils");
+        }
+        em.createNativeQuery(UploadChunk.UPSERT_SQL)
+                .setParameter(1, uploadId)
+                .setParameter(2, index)
+                .setParameter(3, (int) size)
+                .setParameter(4, sha256)
+                .executeUpdate();
+        // Aktive Uploads laufen nicht ab
+        session.setExpiresAt(expiresAt);
+
+        return UploadSessionDTO.fromEntity(session, em.createNamedQuery("UploadChunk.findIndexesBySession", Integer.class)
+                .setParameter("sessionId", uploadId)
+                .getResultList());
+    }
+}
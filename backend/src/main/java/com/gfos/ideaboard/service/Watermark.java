@@ -0,0 +1,58 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.exception.ApiException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the idea change feed: the change time and id of the last row a client has received.
+ * Sent to clients as an opaque URL-safe token; the next request continues strictly after it.
+ */
+public final class Watermark {
+
+    /** Position before the first change, for a full initial sync. */
+    public static final Watermark INITIAL = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime changedAt;
+    private final long id;
+
+    public Watermark(LocalDateTime changedAt, long id) {
+        this.changedAt = changedAt;
+        this.id = id;
+    }
+
+    /**
+     * Parses a token issued by {@link #toToken()}. An absent token means {@link #INITIAL}.
+     */
+    public static Watermark parse(String token) {
+        if (token == null || token.isBlank()) {
+            return INITIAL;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException(value);
+            }
+            return new Watermark(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw ApiException.badRequest("Ungültiges Watermark-Token");
+        }
+    }
+
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((changedAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
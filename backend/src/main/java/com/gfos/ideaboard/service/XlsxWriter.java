@@ -0,0 +1,130 @@
+package com.gfos.ideaboard.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Writes a single-table XLSX workbook row by row. Only a small window of rows is kept in memory; older rows
+ * are flushed to a compressed temp file, so the heap does not grow with the row count. When a sheet reaches
+ * the Excel row limit, the table continues on a new sheet with the same header.
+ */
+final class XlsxWriter implements Closeable {
+
+    // Zeilen im Speicher, ältere werden in die temporäre Datei geschrieben
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final String sheetName;
+    private final String[] headers;
+
+    private SXSSFSheet sheet;
+    private int sheetCount;
+    private int rowIndex;
+    private Row row;
+    private int columnIndex;
+
+    XlsxWriter(String sheetName, String... headers) {
+        this.sheetName = sheetName;
+        this.headers = headers;
+        workbook.setCompressTempFiles(true);
+
+        // Formate einmal pro Arbeitsmappe anlegen, Excel erlaubt nur eine begrenzte Anzahl
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+        startSheet();
+    }
+
+    /**
+     * Starts the next data row; continues on a new sheet once the current one is full.
+     */
+    XlsxWriter row() {
+        if (rowIndex >= MAX_ROWS_PER_SHEET) {
+            startSheet();
+        }
+        row = sheet.createRow(rowIndex++);
+        columnIndex = 0;
+        return this;
+    }
+
+    XlsxWriter text(String value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value);
+        }
+        return this;
+    }
+
+    XlsxWriter number(Number value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value.doubleValue());
+        }
+        return this;
+    }
+
+    XlsxWriter bool(Boolean value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value);
+        }
+        return this;
+    }
+
+    XlsxWriter date(LocalDateTime value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value);
+            cell.setCellStyle(dateStyle);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the workbook to the stream without closing it.
+     */
+    void write(OutputStream output) throws IOException {
+        workbook.write(output);
+    }
+
+    /**
+     * Deletes the temp files.
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void startSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+        sheet.setDefaultColumnWidth(18);
+        sheet.createFreezePane(0, 1);
+
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        rowIndex = 1;
+    }
+}
@@ -0,0 +1,152 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.entity.DailyActivity;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the daily activity rollup: DailyActivity.ROLL_UP_SQL must write one row per day of the
+ * range, count each fact table per day and count active users distinctly, and be safe to run again.
+ */
+public class DailyActivityRollupTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final String USERNAME_A = "rollup_user_a";
+    private static final String USERNAME_B = "rollup_user_b";
+    // Weit in der Vergangenheit, damit vorhandene Daten das Ergebnis nicht beeinflussen
+    private static final LocalDate FIRST_DAY = LocalDate.of(2001, 3, 10);
+    private static final LocalDate DAY_AFTER_LAST = FIRST_DAY.plusDays(3);
+
+    private static Connection connection;
+    private static long userA;
+    private static long userB;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+        userA = insertUser(USERNAME_A);
+        userB = insertUser(USERNAME_B);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Rollup should count activity per day, including days without activity")
+    void testRollUpCountsPerDay() throws Exception {
+        Timestamp day1 = at(FIRST_DAY, 9);
+        Timestamp day2 = at(FIRST_DAY.plusDays(2), 23);
+
+        long idea = insertReturningId("INSERT INTO ideas (title, description, category, author_id, created_at) " +
+                "VALUES ('Rollup', 'Test', 'Test', " + userA + ", '" + day1 + "') RETURNING id");
+        execute("INSERT INTO ideas (title, description, category, author_id, created_at) " +
+                "VALUES ('Rollup 2', 'Test', 'Test', " + userA + ", '" + day1 + "')");
+        execute("INSERT INTO likes (user_id, idea_id, created_at) VALUES (" + userB + ", " + idea + ", '" + day1 + "')");
+        execute("INSERT INTO comments (idea_id, author_id, content, created_at) " +
+                "VALUES (" + idea + ", " + userB + ", 'Test', '" + day2 + "')");
+        execute("INSERT INTO messages (sender_id, recipient_id, content, created_at) " +
+                "VALUES (" + userA + ", " + userB + ", 'Test', '" + day2 + "')");
+        long survey = insertReturningId("INSERT INTO surveys (creator_id, question, is_active) " +
+                "VALUES (" + userA + ", 'Rollup?', FALSE) RETURNING id");
+        long option = insertReturningId("INSERT INTO survey_options (survey_id, option_text) " +
+                "VALUES (" + survey + ", 'Ja') RETURNING id");
+        execute("INSERT INTO survey_votes (survey_id, option_id, user_id, created_at) " +
+                "VALUES (" + survey + ", " + option + ", " + userB + ", '" + day2 + "')");
+
+        assertEquals(3, rollUp(), "One row per day of the range should be written");
+        // Erneutes Verdichten überschreibt die Tage statt sie zu verdoppeln
+        assertEquals(3, rollUp(), "Rolling up again should update the same days");
+
+        List<int[]> days = readRollups();
+        assertEquals(3, days.size());
+        assertArrayEquals(new int[] {2, 1, 0, 0, 0, 2}, days.get(0), "Day 1: two ideas and a like by two users");
+        assertArrayEquals(new int[] {0, 0, 0, 0, 0, 0}, days.get(1), "Day 2 without activity should be zero");
+        assertArrayEquals(new int[] {0, 0, 1, 1, 1, 2}, days.get(2), "Day 3: comment, vote and message by two users");
+    }
+
+    private static int rollUp() throws Exception {
+        // JDBC uses plain "?" placeholders instead of the numbered JPA ones
+        try (PreparedStatement stmt = connection.prepareStatement(DailyActivity.ROLL_UP_SQL.replaceAll("\\?\\d", "?"))) {
+            stmt.setTimestamp(1, Timestamp.valueOf(FIRST_DAY.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(DAY_AFTER_LAST.atStartOfDay()));
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static List<int[]> readRollups() throws Exception {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT ideas, likes, comments, votes, messages, active_users FROM daily_activity " +
+                "WHERE day >= ? AND day < ? ORDER BY day")) {
+            stmt.setDate(1, Date.valueOf(FIRST_DAY));
+            stmt.setDate(2, Date.valueOf(DAY_AFTER_LAST));
+            List<int[]> rows = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new int[] {rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6)});
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static Timestamp at(LocalDate day, int hour) {
+        return Timestamp.valueOf(day.atTime(hour, 30));
+    }
+
+    private static long insertUser(String username) throws Exception {
+        return insertReturningId("INSERT INTO users (username, email, password_hash) " +
+                "VALUES ('" + username + "', '" + username + "@test.local', 'x') RETURNING id");
+    }
+
+    private static long insertReturningId(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static void cleanUp() throws Exception {
+        String users = "('" + USERNAME_A + "', '" + USERNAME_B + "')";
+        List<String> ideaIds = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT i.id FROM ideas i JOIN users u ON u.id = i.author_id " +
+                     "WHERE u.username IN " + users)) {
+            while (rs.next()) {
+                ideaIds.add(String.valueOf(rs.getLong(1)));
+            }
+        }
+        // Ideen, Likes, Kommentare, Stimmen und Nachrichten werden mit den Benutzern gelöscht
+        execute("DELETE FROM users WHERE username IN " + users);
+        if (!ideaIds.isEmpty()) {
+            execute("DELETE FROM idea_tombstones WHERE idea_id IN (" + String.join(",", ideaIds) + ")");
+        }
+        execute("DELETE FROM daily_activity WHERE day >= '" + FIRST_DAY + "' AND day < '" + DAY_AFTER_LAST + "'");
+    }
+}
@@ -0,0 +1,132 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.entity.Idea;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the incremental idea export: Idea.CHANGES_SINCE_SQL must return inserts, updates and
+ * tombstones of deleted ideas after a watermark, and nothing that the client has already received.
+ */
+public class IdeaChangeFeedTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final String USERNAME = "changefeed_author";
+
+    private static Connection connection;
+    private static long authorId;
+    private static final List<String> createdIdeas = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x') RETURNING id")) {
+            stmt.setString(1, USERNAME);
+            stmt.setString(2, USERNAME + "@test.local");
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                authorId = rs.getLong(1);
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Change feed should resume after the watermark and report deletions as tombstones")
+    void testChangesSinceWatermark() throws Exception {
+        long first = insertIdea("Feed A");
+        long second = insertIdea("Feed B");
+        long third = insertIdea("Feed C");
+        Timestamp start = lastChange(changesSince(new Timestamp(0), 0));
+
+        // Nach dem Stand von start: eine Änderung und eine Löschung
+        Thread.sleep(5);
+        execute("UPDATE ideas SET title = 'Feed A2' WHERE id = " + first);
+        execute("DELETE FROM ideas WHERE id = " + second);
+
+        List<Object[]> changes = changesSince(start, Long.MAX_VALUE);
+        assertEquals(2, changes.size(), "Only changes after the watermark should be returned");
+        assertEquals(first, changes.get(0)[1]);
+        assertEquals(false, changes.get(0)[2]);
+        assertEquals("Feed A2", changes.get(0)[3]);
+        assertEquals(second, changes.get(1)[1]);
+        assertEquals(true, changes.get(1)[2], "Deleted idea should be returned as tombstone");
+
+        Object[] last = changes.get(changes.size() - 1);
+        assertTrue(changesSince((Timestamp) last[0], (Long) last[1]).isEmpty(),
+            "Nothing should be returned after the last watermark");
+        assertFalse(changesSince(start, Long.MAX_VALUE).stream().anyMatch(row -> row[1].equals(third)),
+            "Unchanged idea should not be returned again");
+    }
+
+    private static List<Object[]> changesSince(Timestamp changedAt, long id) throws Exception {
+        // JDBC uses plain "?" placeholders instead of the numbered JPA ones
+        try (PreparedStatement stmt = connection.prepareStatement(Idea.CHANGES_SINCE_SQL.replaceAll("\\?\\d", "?"))) {
+            stmt.setTimestamp(1, changedAt);
+            stmt.setLong(2, id);
+            stmt.setInt(3, 0);
+            List<Object[]> rows = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Object[] {rs.getTimestamp(1), rs.getLong(2), rs.getBoolean(3), rs.getString(4)});
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static Timestamp lastChange(List<Object[]> changes) {
+        assertFalse(changes.isEmpty(), "Initial sync should return the new ideas");
+        return (Timestamp) changes.get(changes.size() - 1)[0];
+    }
+
+    private static long insertIdea(String title) throws Exception {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO ideas (title, description, category, author_id) VALUES (?, 'Test', 'Test', ?) RETURNING id")) {
+            stmt.setString(1, title);
+            stmt.setLong(2, authorId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                createdIdeas.add(String.valueOf(rs.getLong(1)));
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static void cleanUp() throws Exception {
+        execute("DELETE FROM users WHERE username = '" + USERNAME + "'");
+        // Auch die Tombstones entfernen, die das Löschen der Testideen erzeugt hat
+        if (!createdIdeas.isEmpty()) {
+            execute("DELETE FROM idea_tombstones WHERE idea_id IN (" + String.join(",", createdIdeas) + ")");
+            createdIdeas.clear();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.gfos.ideaboard.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Runs the real services outside the application server. Like the container, it hands the services one
+ * EntityManager proxy that resolves to the calling thread's EntityManager, and it implements the
+ * transaction registry so that registered synchronizations see the commit or rollback outcome.
+ * Transactions are resource-local; {@link #inTransaction} plays the role of the @Transactional interceptor.
+ */
+final class JpaTestSupport implements TransactionSynchronizationRegistry, AutoCloseable {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private final EntityManagerFactory emf;
+    private final ThreadLocal<EntityManager> threadEntityManager = new ThreadLocal<>();
+    private final ThreadLocal<List<Synchronization>> synchronizations = ThreadLocal.withInitial(ArrayList::new);
+    private final List<EntityManager> openEntityManagers = new CopyOnWriteArrayList<>();
+    private final EntityManager entityManagerProxy;
+
+    JpaTestSupport() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        properties.put("jakarta.persistence.jtaDataSource", "");
+        properties.put("jakarta.persistence.jdbc.driver", "org.postgresql.Driver");
+        properties.put("jakarta.persistence.jdbc.url", DB_URL);
+        properties.put("jakarta.persistence.jdbc.user", DB_USER);
+        properties.put("jakarta.persistence.jdbc.password", DB_PASSWORD);
+        // Das Schema kommt aus init.sql, EclipseLink soll nichts anlegen und nichts protokollieren
+        properties.put("eclipselink.ddl-generation", "none");
+        properties.put("eclipselink.weaving", "false");
+        properties.put("eclipselink.logging.level", "OFF");
+        properties.put("eclipselink.logging.level.sql", "OFF");
+        properties.put("eclipselink.connection-pool.default.max", "64");
+        emf = Persistence.createEntityManagerFactory("IdeaBoardPU", properties);
+
+        entityManagerProxy = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+            new Class<?>[] {EntityManager.class}, (proxy, method, args) -> {
+                try {
+                    return method.invoke(currentEntityManager(), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    /**
+     * The EntityManager to inject into services; every call goes to the calling thread's EntityManager.
+     */
+    EntityManager entityManager() {
+        return entityManagerProxy;
+    }
+
+    /**
+     * Runs the work in a transaction that commits if the work returns and rolls back if it throws,
+     * then notifies the registered synchronizations.
+     */
+    <T> T inTransaction(Supplier<T> work) {
+        EntityTransaction tx = currentEntityManager().getTransaction();
+        tx.begin();
+        try {
+            T result = work.get();
+            tx.commit();
+            complete(Status.STATUS_COMMITTED);
+            return result;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            complete(Status.STATUS_ROLLEDBACK);
+            throw e;
+        } finally {
+            currentEntityManager().clear();
+        }
+    }
+
+    void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Sets a private field of a service, as the container does for @Inject, @Resource and @PersistenceContext.
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        // Auch in Oberklassen suchen, Tests überschreiben Dienste mit anonymen Unterklassen
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // weiter in der Oberklasse
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot inject " + fieldName, e);
+            }
+        }
+        throw new IllegalStateException("No field " + fieldName + " in " + target.getClass());
+    }
+
+    @Override
+    public void close() {
+        for (EntityManager em : openEntityManagers) {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+        emf.close();
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return isActive() ? threadEntityManager.get().getTransaction() : null;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        if (!isActive()) {
+            throw new IllegalStateException("No active transaction");
+        }
+        synchronizations.get().add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return isActive() ? Status.STATUS_ACTIVE : Status.STATUS_NO_TRANSACTION;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        threadEntityManager.get().getTransaction().setRollbackOnly();
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return isActive() && threadEntityManager.get().getTransaction().getRollbackOnly();
+    }
+
+    private boolean isActive() {
+        EntityManager em = threadEntityManager.get();
+        return em != null && em.getTransaction().isActive();
+    }
+
+    private EntityManager currentEntityManager() {
+        EntityManager em = threadEntityManager.get();
+        if (em == null) {
+            em = emf.createEntityManager();
+            openEntityManagers.add(em);
+            threadEntityManager.set(em);
+        }
+        return em;
+    }
+
+    private void complete(int status) {
+        List<Synchronization> registered = new ArrayList<>(synchronizations.get());
+        synchronizations.get().clear();
+        for (Synchronization sync : registered) {
+            sync.afterCompletion(status);
+        }
+    }
+}
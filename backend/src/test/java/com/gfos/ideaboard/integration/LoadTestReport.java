@@ -0,0 +1,29 @@
+package com.gfos.ideaboard.integration;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Writes the measurements of a load test to target/load-tests/&lt;test&gt;.properties, so that runs can be compared
+ * without printing to the console.
+ */
+final class LoadTestReport {
+
+    private static final Path REPORT_DIR = Path.of(System.getProperty("loadtest.reportDir", "target/load-tests"));
+
+    private LoadTestReport() {
+    }
+
+    static void write(Class<?> test, Map<String, String> measurements) throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(measurements);
+        Files.createDirectories(REPORT_DIR);
+        try (Writer out = Files.newBufferedWriter(REPORT_DIR.resolve(test.getSimpleName() + ".properties"))) {
+            properties.store(out, test.getSimpleName());
+        }
+    }
+}
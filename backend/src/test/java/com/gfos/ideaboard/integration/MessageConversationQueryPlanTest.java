@@ -0,0 +1,82 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.entity.Message;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test to verify that conversation keyset paging is served by idx_messages_conversation.
+ * Sequential scans are disabled for the session so the planner reveals whether the index
+ * matches the predicate and the ordering, independent of the table size.
+ */
+public class MessageConversationQueryPlanTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (connection != null && !connection.isClosed()) {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Latest page of a conversation should use the conversation index without sorting")
+    void testLatestPageUsesIndex() throws Exception {
+        String plan = explain(Long.MAX_VALUE);
+
+        assertTrue(plan.contains("idx_messages_conversation"),
+            "Conversation page should use idx_messages_conversation, plan was:\n" + plan);
+        assertFalse(plan.contains("Sort"),
+            "Conversation page should be ordered by the index, plan was:\n" + plan);
+    }
+
+    @Test
+    @DisplayName("Older page of a conversation should use the conversation index without sorting")
+    void testOlderPageUsesIndex() throws Exception {
+        String plan = explain(1000L);
+
+        assertTrue(plan.contains("idx_messages_conversation"),
+            "Conversation page should use idx_messages_conversation, plan was:\n" + plan);
+        assertFalse(plan.contains("Sort"),
+            "Conversation page should be ordered by the index, plan was:\n" + plan);
+    }
+
+    private String explain(long beforeId) throws Exception {
+        // JDBC uses plain "?" placeholders instead of the numbered JPA ones
+        String query = "EXPLAIN " + Message.CONVERSATION_BEFORE_SQL.replaceAll("\\?\\d", "?") + " LIMIT 50";
+        PreparedStatement stmt = connection.prepareStatement(query);
+        stmt.setLong(1, 1L);
+        stmt.setLong(2, 2L);
+        stmt.setLong(3, beforeId);
+        ResultSet rs = stmt.executeQuery();
+
+        StringBuilder plan = new StringBuilder();
+        while (rs.next()) {
+            plan.append(rs.getString(1)).append('\n');
+        }
+
+        rs.close();
+        stmt.close();
+        return plan.toString();
+    }
+}
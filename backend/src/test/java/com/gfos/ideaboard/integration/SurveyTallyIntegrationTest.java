@@ -0,0 +1,225 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.service.SurveyService;
+import com.gfos.ideaboard.service.SurveyTallyService;
+import com.gfos.ideaboard.service.SurveyTallyWriter;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the survey vote path: SurveyService.vote with SurveyTallyService and SurveyTallyWriter.
+ * Votes must update the in-memory tally at once, reach the counter columns only after commit and flush,
+ * be reverted on rollback, and survive a failed flush.
+ */
+public class SurveyTallyIntegrationTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final String USER_PREFIX = "tally_voter_";
+    private static final int VOTERS = 4;
+
+    private static Connection connection;
+    private static JpaTestSupport jpa;
+    private static long[] voterIds;
+
+    private long surveyId;
+    private long optionA;
+    private long optionB;
+    private SurveyService surveyService;
+    private SurveyTallyService tallyService;
+    private final AtomicBoolean failNextFlush = new AtomicBoolean();
+
+    @BeforeAll
+    static void setUpAll() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+        voterIds = new long[VOTERS];
+        for (int i = 0; i < VOTERS; i++) {
+            voterIds[i] = queryLong("INSERT INTO users (username, email, password_hash) " +
+                    "VALUES ('" + USER_PREFIX + i + "', '" + USER_PREFIX + i + "@test.local', 'x') RETURNING id");
+        }
+        jpa = new JpaTestSupport();
+    }
+
+    @AfterAll
+    static void tearDownAll() throws Exception {
+        if (jpa != null) {
+            jpa.close();
+        }
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        surveyId = queryLong("INSERT INTO surveys (creator_id, question, is_active) " +
+                "VALUES (" + voterIds[0] + ", 'Tally?', TRUE) RETURNING id");
+        optionA = queryLong("INSERT INTO survey_options (survey_id, option_text, display_order) " +
+                "VALUES (" + surveyId + ", 'A', 0) RETURNING id");
+        optionB = queryLong("INSERT INTO survey_options (survey_id, option_text, display_order) " +
+                "VALUES (" + surveyId + ", 'B', 1) RETURNING id");
+        surveyService = newSurveyService(tallyService = newTallyService());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        execute("DELETE FROM surveys WHERE id = " + surveyId);
+    }
+
+    @Test
+    @DisplayName("Committed votes should update the tally at once and the counter columns on flush")
+    void testCommittedVotesAreFlushedInOneBatch() throws Exception {
+        vote(voterIds[0], optionA);
+        vote(voterIds[1], optionA);
+        vote(voterIds[2], optionB);
+
+        assertEquals(Map.of(optionA, 2L, optionB, 1L), tallyService.getTally(surveyId).snapshot(),
+            "Tally should count the votes before any flush");
+        assertEquals(Map.of(optionA, 0L, optionB, 0L), storedCounts(), "Counters should wait for the flush");
+
+        tallyService.flush();
+
+        assertEquals(Map.of(optionA, 2L, optionB, 1L), storedCounts(), "Flush should write all queued votes");
+        assertEquals(3, storedTotal(), "Flush should update the survey total");
+
+        tallyService.flush();
+        assertEquals(Map.of(optionA, 2L, optionB, 1L), storedCounts(), "A second flush should write nothing");
+
+        // Nach einem Neustart wird die Zählung aus den Zählerspalten geladen
+        assertEquals(Map.of(optionA, 2L, optionB, 1L), newTallyService().getTally(surveyId).snapshot());
+    }
+
+    @Test
+    @DisplayName("A rolled-back vote should be reverted in the tally and never be flushed")
+    void testRolledBackVoteIsReverted() throws Exception {
+        vote(voterIds[0], optionA);
+
+        RuntimeException failure = new IllegalStateException("Fehler nach der Stimmabgabe");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> jpa.inTransaction(() -> {
+            surveyService.vote(surveyId, List.of(optionB), voterIds[1]);
+            assertEquals(1L, tallyService.getTally(surveyId).snapshot().get(optionB),
+                "Voter should see the vote inside the transaction");
+            throw failure;
+        }));
+        assertSame(failure, thrown);
+
+        assertEquals(Map.of(optionA, 1L, optionB, 0L), tallyService.getTally(surveyId).snapshot(),
+            "Rollback should revert the tally");
+        tallyService.flush();
+        assertEquals(Map.of(optionA, 1L, optionB, 0L), storedCounts(), "Rolled-back vote should not be written");
+        assertEquals(1, countRows("survey_votes"), "Rolled-back vote row should not be stored");
+        assertEquals(1, countRows("survey_participants"), "Rolled-back participant row should not be stored");
+    }
+
+    @Test
+    @DisplayName("A second vote on a single-choice survey should be rejected without touching the tally")
+    void testDuplicateVoteIsRejected() throws Exception {
+        vote(voterIds[0], optionA);
+
+        ApiException duplicate = assertThrows(ApiException.class, () -> vote(voterIds[0], optionB));
+        assertEquals(409, duplicate.getStatus().getStatusCode());
+
+        tallyService.flush();
+        assertEquals(Map.of(optionA, 1L, optionB, 0L), tallyService.getTally(surveyId).snapshot());
+        assertEquals(Map.of(optionA, 1L, optionB, 0L), storedCounts());
+    }
+
+    @Test
+    @DisplayName("Deltas of a failed flush should be written by the next one")
+    void testFailedFlushIsRetried() throws Exception {
+        vote(voterIds[0], optionA);
+        vote(voterIds[1], optionB);
+
+        failNextFlush.set(true);
+        assertThrows(IllegalStateException.class, tallyService::flush);
+        assertEquals(Map.of(optionA, 0L, optionB, 0L), storedCounts(), "Failed flush should write nothing");
+
+        vote(voterIds[2], optionA);
+        tallyService.flush();
+        assertEquals(Map.of(optionA, 2L, optionB, 1L), storedCounts(), "Next flush should write the requeued deltas");
+        assertEquals(3, storedTotal());
+    }
+
+    private void vote(long userId, long optionId) {
+        jpa.inTransaction(() -> surveyService.vote(surveyId, List.of(optionId), userId));
+    }
+
+    private SurveyTallyService newTallyService() {
+        SurveyTallyWriter writer = new SurveyTallyWriter() {
+            @Override
+            public void applyDeltas(Map<Long, Map<Long, Long>> deltasBySurvey) {
+                if (failNextFlush.getAndSet(false)) {
+                    throw new IllegalStateException("Datenbank nicht erreichbar");
+                }
+                // Ersetzt den @Transactional-Interceptor
+                jpa.inTransaction(() -> super.applyDeltas(deltasBySurvey));
+            }
+        };
+        JpaTestSupport.inject(writer, "em", jpa.entityManager());
+
+        SurveyTallyService service = new SurveyTallyService();
+        JpaTestSupport.inject(service, "em", jpa.entityManager());
+        JpaTestSupport.inject(service, "writer", writer);
+        JpaTestSupport.inject(service, "txRegistry", jpa);
+        return service;
+    }
+
+    private static SurveyService newSurveyService(SurveyTallyService tallyService) {
+        SurveyService service = new SurveyService();
+        JpaTestSupport.inject(service, "em", jpa.entityManager());
+        JpaTestSupport.inject(service, "tallyService", tallyService);
+        return service;
+    }
+
+    private Map<Long, Long> storedCounts() throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, vote_count FROM survey_options WHERE survey_id = " + surveyId)) {
+            Map<Long, Long> counts = new HashMap<>();
+            while (rs.next()) {
+                counts.put(rs.getLong(1), rs.getLong(2));
+            }
+            return counts;
+        }
+    }
+
+    private long storedTotal() throws Exception {
+        return queryLong("SELECT total_votes FROM surveys WHERE id = " + surveyId);
+    }
+
+    private long countRows(String table) throws Exception {
+        return queryLong("SELECT COUNT(*) FROM " + table + " WHERE survey_id = " + surveyId);
+    }
+
+    private static long queryLong(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void cleanUp() throws Exception {
+        execute("DELETE FROM users WHERE username LIKE '" + USER_PREFIX + "%'");
+    }
+}
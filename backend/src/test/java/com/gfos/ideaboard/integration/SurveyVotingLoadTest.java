@@ -0,0 +1,203 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.service.SurveyService;
+import com.gfos.ideaboard.service.SurveyTallyService;
+import com.gfos.ideaboard.service.SurveyTallyWriter;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load-test scenario for survey voting: 5,000 voters arrive at once on one single-choice survey.
+ * Each voter calls SurveyService.vote in its own transaction on one of 50 threads; 10% of the voters try to
+ * vote a second time. The queued tally deltas are flushed at the end and must match the stored votes.
+ * Writes throughput and p50/p99 latency per voter, measured from arrival to commit, to target/load-tests.
+ * Runs only with the load-tests profile: mvn test -P load-tests
+ */
+@Tag("load")
+public class SurveyVotingLoadTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final int VOTERS = 5000;
+    private static final int THREADS = 50;
+    private static final int OPTIONS = 4;
+    private static final String USER_PREFIX = "loadtest_voter_";
+
+    private static Connection connection;
+    private static JpaTestSupport jpa;
+    private static long surveyId;
+    private static long[] optionIds;
+    private static long[] voterIds;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+
+        PreparedStatement insertUser = connection.prepareStatement(
+            "INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x') RETURNING id");
+        voterIds = new long[VOTERS];
+        for (int i = 0; i < VOTERS; i++) {
+            insertUser.setString(1, USER_PREFIX + i);
+            insertUser.setString(2, USER_PREFIX + i + "@loadtest.local");
+            ResultSet rs = insertUser.executeQuery();
+            rs.next();
+            voterIds[i] = rs.getLong(1);
+            rs.close();
+        }
+        insertUser.close();
+
+        PreparedStatement insertSurvey = connection.prepareStatement(
+            "INSERT INTO surveys (creator_id, question) VALUES (?, 'Load test survey') RETURNING id");
+        insertSurvey.setLong(1, voterIds[0]);
+        ResultSet rs = insertSurvey.executeQuery();
+        rs.next();
+        surveyId = rs.getLong(1);
+        rs.close();
+        insertSurvey.close();
+
+        PreparedStatement insertOption = connection.prepareStatement(
+            "INSERT INTO survey_options (survey_id, option_text, display_order) VALUES (?, ?, ?) RETURNING id");
+        optionIds = new long[OPTIONS];
+        for (int i = 0; i < OPTIONS; i++) {
+            insertOption.setLong(1, surveyId);
+            insertOption.setString(2, "Option " + i);
+            insertOption.setInt(3, i);
+            rs = insertOption.executeQuery();
+            rs.next();
+            optionIds[i] = rs.getLong(1);
+            rs.close();
+        }
+        insertOption.close();
+
+        jpa = new JpaTestSupport();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (jpa != null) {
+            jpa.close();
+        }
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("5,000 concurrent voters should all be counted once with bounded p99 latency")
+    void testConcurrentVoters() throws Exception {
+        SurveyTallyService tallyService = newTallyService();
+        SurveyService surveyService = new SurveyService();
+        JpaTestSupport.inject(surveyService, "em", jpa.entityManager());
+        JpaTestSupport.inject(surveyService, "tallyService", tallyService);
+
+        AtomicInteger rejectedDuplicates = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> latencies = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < VOTERS; i++) {
+            long voterId = voterIds[i];
+            int option = i % OPTIONS;
+            boolean votesTwice = i % 10 == 0;
+            long arrival = System.nanoTime();
+
+            latencies.add(executor.submit(() -> {
+                jpa.inTransaction(() -> surveyService.vote(surveyId, List.of(optionIds[option]), voterId));
+                long latency = System.nanoTime() - arrival;
+
+                if (votesTwice) {
+                    try {
+                        jpa.inTransaction(() ->
+                            surveyService.vote(surveyId, List.of(optionIds[(option + 1) % OPTIONS]), voterId));
+                    } catch (ApiException e) {
+                        assertEquals(409, e.getStatus().getStatusCode());
+                        rejectedDuplicates.incrementAndGet();
+                    }
+                }
+                return latency;
+            }));
+        }
+
+        long[] sorted = new long[VOTERS];
+        for (int i = 0; i < VOTERS; i++) {
+            sorted[i] = latencies.get(i).get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        Arrays.sort(sorted);
+        LoadTestReport.write(SurveyVotingLoadTest.class, Map.of(
+            "voters", String.valueOf(VOTERS),
+            "threads", String.valueOf(THREADS),
+            "votesPerSecond", String.format("%.0f", VOTERS / (elapsed / 1e9)),
+            "p50Ms", String.format("%.1f", sorted[VOTERS / 2] / 1e6),
+            "p99Ms", String.format("%.1f", sorted[(int) (VOTERS * 0.99)] / 1e6),
+            "maxMs", String.format("%.1f", sorted[VOTERS - 1] / 1e6)));
+
+        assertEquals(VOTERS / 10, rejectedDuplicates.get(), "Second votes should be rejected");
+        assertEquals(VOTERS, tallyService.getTally(surveyId).total(), "Tally should count every accepted vote once");
+
+        tallyService.flush();
+
+        Map<Long, Long> snapshot = tallyService.getTally(surveyId).snapshot();
+        long stored = 0;
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT o.id, o.vote_count, (SELECT COUNT(*) FROM survey_votes v WHERE v.option_id = o.id) " +
+                "FROM survey_options o WHERE o.survey_id = ?")) {
+            count.setLong(1, surveyId);
+            try (ResultSet rs = count.executeQuery()) {
+                while (rs.next()) {
+                    assertEquals(rs.getLong(3), rs.getLong(2), "Flushed counter should match stored votes per option");
+                    assertEquals(rs.getLong(3), snapshot.get(rs.getLong(1)), "Tally should match stored votes per option");
+                    stored += rs.getLong(3);
+                }
+            }
+        }
+        assertEquals(VOTERS, stored, "Every accepted vote should be stored exactly once");
+    }
+
+    private static SurveyTallyService newTallyService() {
+        SurveyTallyWriter writer = new SurveyTallyWriter() {
+            @Override
+            public void applyDeltas(Map<Long, Map<Long, Long>> deltasBySurvey) {
+                // Ersetzt den @Transactional-Interceptor
+                jpa.inTransaction(() -> super.applyDeltas(deltasBySurvey));
+            }
+        };
+        JpaTestSupport.inject(writer, "em", jpa.entityManager());
+
+        SurveyTallyService service = new SurveyTallyService();
+        JpaTestSupport.inject(service, "em", jpa.entityManager());
+        JpaTestSupport.inject(service, "writer", writer);
+        JpaTestSupport.inject(service, "txRegistry", jpa);
+        return service;
+    }
+
+    private static void cleanUp() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM users WHERE username LIKE '" + USER_PREFIX + "%'");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.service.ExportService;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for the user CSV export at 1,000, 10,000 and 100,000 users.
+ * Compares the former export (one user query plus three COUNT queries per user) with ExportService.writeUsersCsv,
+ * which reads the aggregated query through an EclipseLink cursor, and checks that both report the same counts.
+ * Writes the measured times to target/load-tests. Runs only with the load-tests profile: mvn test -P load-tests
+ */
+@Tag("load")
+public class UserExportBenchmarkTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final int[] USER_COUNTS = {1_000, 10_000, 100_000};
+    private static final String USER_PREFIX = "exportbench_";
+
+    private static Connection connection;
+    private static JpaTestSupport jpa;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+        jpa = new JpaTestSupport();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (jpa != null) {
+            jpa.close();
+        }
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("User CSV export should match the per-user counts with a single query")
+    void testAggregatedExport() throws Exception {
+        ExportService exportService = new ExportService();
+        JpaTestSupport.inject(exportService, "em", jpa.entityManager());
+        Map<String, String> measurements = new LinkedHashMap<>();
+
+        for (int users : USER_COUNTS) {
+            cleanUp();
+            seed(users);
+
+            long start = System.nanoTime();
+            String csv = exportCsv(exportService);
+            long exportNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Map<Long, long[]> perUser = exportPerUser();
+            long perUserNanos = System.nanoTime() - start;
+
+            measurements.put(users + ".perUserQueries", String.valueOf(1 + 3L * users));
+            measurements.put(users + ".perUserMs", String.format("%.0f", perUserNanos / 1e6));
+            measurements.put(users + ".writeUsersCsvMs", String.format("%.0f", exportNanos / 1e6));
+
+            Map<Long, long[]> exported = parseCounts(csv);
+            assertEquals(users, perUser.size());
+            assertEquals(users, exported.size(), "Export should contain every user");
+            for (Map.Entry<Long, long[]> entry : perUser.entrySet()) {
+                assertArrayEquals(entry.getValue(), exported.get(entry.getKey()),
+                    "Counts should match for user " + entry.getKey());
+            }
+        }
+        LoadTestReport.write(UserExportBenchmarkTest.class, measurements);
+    }
+
+    /**
+     * Creates the users set-based: every fourth user has written an idea, the users around each author like it
+     * and every other one of them comments on it.
+     */
+    private static void seed(int users) throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO users (username, email, password_hash) " +
+                "SELECT '" + USER_PREFIX + "' || n, '" + USER_PREFIX + "' || n || '@benchmark.local', 'x' " +
+                "FROM generate_series(1, " + users + ") n");
+            stmt.executeUpdate(
+                "INSERT INTO ideas (title, description, category, author_id) " +
+                "SELECT 'Benchmark ' || u.id, 'Benchmark', 'Benchmark', u.id FROM users u " +
+                "WHERE u.username LIKE '" + USER_PREFIX + "%' AND u.id % 4 = 0");
+            // Likes und Kommentare auf viele Ideen verteilen, damit die Zähler-Trigger nicht stets dieselbe Zeile ändern
+            stmt.executeUpdate(
+                "INSERT INTO likes (user_id, idea_id) " +
+                "SELECT u.id, i.id FROM users u JOIN ideas i ON i.author_id = u.id - u.id % 4 " +
+                "WHERE u.username LIKE '" + USER_PREFIX + "%'");
+            stmt.executeUpdate(
+                "INSERT INTO comments (idea_id, author_id, content) " +
+                "SELECT i.id, u.id, 'Benchmark' FROM users u JOIN ideas i ON i.author_id = u.id - u.id % 4 " +
+                "WHERE u.username LIKE '" + USER_PREFIX + "%' AND u.id % 2 = 0");
+            stmt.execute("ANALYZE users, ideas, likes, comments");
+        }
+    }
+
+    private static String exportCsv(ExportService exportService) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // Der Cursor braucht eine Transaktion, wie unter @Transactional
+        jpa.inTransaction(() -> {
+            try {
+                exportService.writeUsersCsv(output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the idea, like and comment counts of the benchmark users from the exported CSV.
+     */
+    private static Map<Long, long[]> parseCounts(String csv) {
+        Map<Long, long[]> counts = new HashMap<>();
+        for (String line : csv.split("\n")) {
+            // Benchmark-Benutzer haben keine Felder mit Kommas, andere Zeilen werden übersprungen
+            String[] columns = line.split(",", -1);
+            if (columns.length == 13 && columns[1].startsWith(USER_PREFIX)) {
+                counts.put(Long.parseLong(columns[0]),
+                    new long[] {Long.parseLong(columns[8]), Long.parseLong(columns[9]), Long.parseLong(columns[10])});
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Runs the former export: the users, then three COUNT queries for each of them.
+     */
+    private static Map<Long, long[]> exportPerUser() throws Exception {
+        Map<Long, long[]> counts = new HashMap<>();
+        try (PreparedStatement users = connection.prepareStatement(
+                 "SELECT id FROM users WHERE username LIKE ? ORDER BY created_at DESC, id DESC");
+             PreparedStatement ideas = connection.prepareStatement("SELECT COUNT(*) FROM ideas WHERE author_id = ?");
+             PreparedStatement likes = connection.prepareStatement("SELECT COUNT(*) FROM likes WHERE user_id = ?");
+             PreparedStatement comments = connection.prepareStatement("SELECT COUNT(*) FROM comments WHERE author_id = ?")) {
+            users.setString(1, USER_PREFIX + "%");
+            try (ResultSet rs = users.executeQuery()) {
+                while (rs.next()) {
+                    long userId = rs.getLong(1);
+                    counts.put(userId, new long[] {count(ideas, userId), count(likes, userId), count(comments, userId)});
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static long count(PreparedStatement query, long userId) throws Exception {
+        query.setLong(1, userId);
+        try (ResultSet rs = query.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void cleanUp() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            long minIdeaId = 0;
+            long maxIdeaId = -1;
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(i.id), MAX(i.id) FROM ideas i JOIN users u ON u.id = i.author_id " +
+                    "WHERE u.username LIKE '" + USER_PREFIX + "%'")) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    minIdeaId = rs.getLong(1);
+                    maxIdeaId = rs.getLong(2);
+                }
+            }
+            // Ideen, Likes und Kommentare werden über ON DELETE CASCADE mitgelöscht
+            stmt.executeUpdate("DELETE FROM users WHERE username LIKE '" + USER_PREFIX + "%'");
+            // Tombstones der gelöschten Ideen wieder entfernen
+            stmt.executeUpdate("DELETE FROM idea_tombstones WHERE idea_id BETWEEN " + minIdeaId + " AND " + maxIdeaId);
+        }
+    }
+}
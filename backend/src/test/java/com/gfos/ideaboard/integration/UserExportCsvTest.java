@@ -0,0 +1,133 @@
+package com.gfos.ideaboard.integration;
+
+import com.gfos.ideaboard.service.ExportService;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for ExportService.writeUsersCsv: the CSV must keep its column order and report the activity
+ * counts per user, with zeros for users without any activity.
+ */
+public class UserExportCsvTest {
+
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ideaboard";
+    private static final String DB_USER = "ideaboard_user";
+    private static final String DB_PASSWORD = "ideaboard123";
+
+    private static final String USER_PREFIX = "exportcsv_";
+
+    private static Connection connection;
+    private static JpaTestSupport jpa;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        cleanUp();
+        jpa = new JpaTestSupport();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (jpa != null) {
+            jpa.close();
+        }
+        if (connection != null && !connection.isClosed()) {
+            cleanUp();
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("User CSV should list every user with its activity counts in the documented column order")
+    void testWriteUsersCsv() throws Exception {
+        long author = queryLong("INSERT INTO users (username, email, password_hash, first_name, last_name, xp_points, level) " +
+                "VALUES ('" + USER_PREFIX + "author', '" + USER_PREFIX + "author@test.local', 'x', 'Anna', 'Muster, Jr.', 120, 2) " +
+                "RETURNING id");
+        long fan = queryLong("INSERT INTO users (username, email, password_hash) " +
+                "VALUES ('" + USER_PREFIX + "fan', '" + USER_PREFIX + "fan@test.local', 'x') RETURNING id");
+        long idle = queryLong("INSERT INTO users (username, email, password_hash, is_active) " +
+                "VALUES ('" + USER_PREFIX + "idle', '" + USER_PREFIX + "idle@test.local', 'x', FALSE) RETURNING id");
+        long first = queryLong("INSERT INTO ideas (title, description, category, author_id) " +
+                "VALUES ('Export', 'Test', 'Test', " + author + ") RETURNING id");
+        long second = queryLong("INSERT INTO ideas (title, description, category, author_id) " +
+                "VALUES ('Export 2', 'Test', 'Test', " + author + ") RETURNING id");
+        execute("INSERT INTO likes (user_id, idea_id) VALUES (" + fan + ", " + first + "), (" + fan + ", " + second + ")");
+        execute("INSERT INTO comments (idea_id, author_id, content) VALUES (" + first + ", " + fan + ", 'Test'), " +
+                "(" + first + ", " + author + ", 'Test')");
+
+        String[] lines = export().split("\n");
+        assertEquals("ID,Benutzername,E-Mail,Vorname,Nachname,Rolle,XP-Punkte,Level,Anzahl Ideen,Vergebene Likes," +
+                "Kommentare,Aktiv,Erstellt am", lines[0]);
+
+        Map<Long, String> rows = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            rows.put(Long.parseLong(lines[i].substring(0, lines[i].indexOf(','))), lines[i]);
+        }
+        assertTrue(rows.get(author).startsWith(author + "," + USER_PREFIX + "author," + USER_PREFIX + "author@test.local," +
+                "Anna,\"Muster, Jr.\",EMPLOYEE,120,2,2,0,1,true,"), rows.get(author));
+        assertTrue(rows.get(fan).startsWith(fan + "," + USER_PREFIX + "fan," + USER_PREFIX + "fan@test.local," +
+                ",,EMPLOYEE,0,1,0,2,1,true,"), rows.get(fan));
+        // Ohne Aktivität liefert der LEFT JOIN NULL, die Spalten müssen trotzdem 0 enthalten
+        assertTrue(rows.get(idle).startsWith(idle + "," + USER_PREFIX + "idle," + USER_PREFIX + "idle@test.local," +
+                ",,EMPLOYEE,0,1,0,0,0,false,"), rows.get(idle));
+        assertTrue(rows.get(idle).matches(".*,\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}"), "Created at should be the last column");
+    }
+
+    private static String export() {
+        ExportService service = new ExportService();
+        JpaTestSupport.inject(service, "em", jpa.entityManager());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // Der Cursor braucht eine Transaktion, wie unter @Transactional
+        jpa.inTransaction(() -> {
+            try {
+                service.writeUsersCsv(output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static long queryLong(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static void cleanUp() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            long minIdeaId = 0;
+            long maxIdeaId = -1;
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(i.id), MAX(i.id) FROM ideas i JOIN users u ON u.id = i.author_id " +
+                    "WHERE u.username LIKE '" + USER_PREFIX + "%'")) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    minIdeaId = rs.getLong(1);
+                    maxIdeaId = rs.getLong(2);
+                }
+            }
+            // Ideen, Likes und Kommentare werden über ON DELETE CASCADE mitgelöscht
+            stmt.executeUpdate("DELETE FROM users WHERE username LIKE '" + USER_PREFIX + "%'");
+            // Tombstones der gelöschten Ideen wieder entfernen
+            stmt.executeUpdate("DELETE FROM idea_tombstones WHERE idea_id BETWEEN " + minIdeaId + " AND " + maxIdeaId);
+        }
+    }
+}
@@ -2,24 +2,33 @@
 -- PostgreSQL 15+
 
 -- Vorhandene Tabellen löschen, wenn sie existieren (für saubere Neuinstallation)
+DROP TABLE IF EXISTS daily_activity CASCADE;
 DROP TABLE IF EXISTS group_message_reads CASCADE;
 DROP TABLE IF EXISTS group_messages CASCADE;
 DROP TABLE IF EXISTS group_members CASCADE;
 DROP TABLE IF EXISTS idea_groups CASCADE;
+DROP TABLE IF EXISTS conversations CASCADE;
 DROP TABLE IF EXISTS messages CASCADE;
 DROP TABLE IF EXISTS checklist_items CASCADE;
 DROP TABLE IF EXISTS user_badges CASCADE;
 DROP TABLE IF EXISTS badges CASCADE;
 DROP TABLE IF EXISTS audit_logs CASCADE;
 DROP TABLE IF EXISTS notifications CASCADE;
+DROP TABLE IF EXISTS survey_results CASCADE;
+DROP TABLE IF EXISTS survey_participants CASCADE;
 DROP TABLE IF EXISTS survey_votes CASCADE;
 DROP TABLE IF EXISTS survey_options CASCADE;
 DROP TABLE IF EXISTS surveys CASCADE;
+DROP TABLE IF EXISTS comment_reaction_counts CASCADE;
 DROP TABLE IF EXISTS comment_reactions CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS likes CASCADE;
+DROP TABLE IF EXISTS upload_chunks CASCADE;
+DROP TABLE IF EXISTS upload_sessions CASCADE;
 DROP TABLE IF EXISTS file_attachments CASCADE;
+DROP TABLE IF EXISTS file_blobs CASCADE;
 DROP TABLE IF EXISTS idea_tags CASCADE;
+DROP TABLE IF EXISTS idea_tombstones CASCADE;
 DROP TABLE IF EXISTS ideas CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
 
@@ -64,6 +73,8 @@ CREATE TABLE ideas (
     like_count INTEGER NOT NULL DEFAULT 0,
     comment_count INTEGER NOT NULL DEFAULT 0,
     view_count INTEGER NOT NULL DEFAULT 0,
+    total_items INTEGER NOT NULL DEFAULT 0,
+    completed_items INTEGER NOT NULL DEFAULT 0,
     is_featured BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
@@ -74,6 +85,8 @@ CREATE INDEX idx_ideas_category ON ideas(category);
 CREATE INDEX idx_ideas_status ON ideas(status);
 CREATE INDEX idx_ideas_created_at ON ideas(created_at DESC);
 CREATE INDEX idx_ideas_like_count ON ideas(like_count DESC);
+-- Änderungs-Feed: Schlüsselmenge (updated_at, id) für fortsetzbare Abfragen
+CREATE INDEX idx_ideas_updated_at_id ON ideas(updated_at, id);
 
 -- =====================================================
 -- IDEEN-TAGS-TABELLE
@@ -88,6 +101,31 @@ CREATE TABLE idea_tags (
 CREATE INDEX idx_idea_tags_idea ON idea_tags(idea_id);
 CREATE INDEX idx_idea_tags_name ON idea_tags(tag_name);
 
+-- =====================================================
+-- GELÖSCHTE IDEEN (Tombstones für den Änderungs-Feed)
+-- =====================================================
+CREATE TABLE idea_tombstones (
+    idea_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_idea_tombstones_deleted_at_id ON idea_tombstones(deleted_at, idea_id);
+
+-- =====================================================
+-- DATEI-INHALTE (inhaltsadressiert, SHA-256)
+-- =====================================================
+-- Jeder Inhalt liegt nur einmal auf der Festplatte; ref_count zählt die Anhänge, die ihn verwenden
+CREATE TABLE file_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL UNIQUE,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    unreferenced_since TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_file_blobs_unreferenced ON file_blobs(unreferenced_since) WHERE ref_count = 0;
+
 -- =====================================================
 -- DATEIANHÄNGE-TABELLE
 -- =====================================================
@@ -100,10 +138,39 @@ CREATE TABLE file_attachments (
     file_size BIGINT NOT NULL,
     file_path VARCHAR(500) NOT NULL,
     uploaded_by BIGINT NOT NULL REFERENCES users(id),
-    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    blob_id BIGINT REFERENCES file_blobs(id)
 );
 
 CREATE INDEX idx_file_attachments_idea ON file_attachments(idea_id);
+CREATE INDEX idx_file_attachments_blob ON file_attachments(blob_id);
+
+-- =====================================================
+-- STÜCKWEISE UPLOADS (fortsetzbar)
+-- =====================================================
+CREATE TABLE upload_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    idea_id BIGINT NOT NULL REFERENCES ideas(id) ON DELETE CASCADE,
+    uploader_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    original_name VARCHAR(255) NOT NULL,
+    total_size BIGINT NOT NULL CHECK (total_size > 0),
+    chunk_size INTEGER NOT NULL CHECK (chunk_size > 0),
+    chunk_count INTEGER NOT NULL CHECK (chunk_count > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions(expires_at);
+
+CREATE TABLE upload_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    session_id BIGINT NOT NULL REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    chunk_index INTEGER NOT NULL CHECK (chunk_index >= 0),
+    chunk_size INTEGER NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(session_id, chunk_index)
+);
 
 -- =====================================================
 -- LIKES-TABELLE
@@ -134,6 +201,7 @@ CREATE TABLE comments (
 );
 
 CREATE INDEX idx_comments_idea ON comments(idea_id);
+CREATE INDEX idx_comments_idea_created_at ON comments(idea_id, created_at DESC, id DESC);
 CREATE INDEX idx_comments_author ON comments(author_id);
 CREATE INDEX idx_comments_created_at ON comments(created_at DESC);
 
@@ -168,6 +236,17 @@ CREATE TABLE comment_reactions (
 CREATE INDEX idx_comment_reactions_comment ON comment_reactions(comment_id);
 CREATE INDEX idx_comment_reactions_user ON comment_reactions(user_id);
 
+-- =====================================================
+-- KOMMENTAR-REAKTIONS-ZÄHLUNGEN-TABELLE (Histogramm pro Emoji, per Trigger gepflegt)
+-- =====================================================
+CREATE TABLE comment_reaction_counts (
+    id BIGSERIAL PRIMARY KEY,
+    comment_id BIGINT NOT NULL REFERENCES comments(id) ON DELETE CASCADE,
+    emoji VARCHAR(20) NOT NULL,
+    reaction_count INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(comment_id, emoji)
+);
+
 -- =====================================================
 -- UMFRAGEN-TABELLE
 -- =====================================================
@@ -181,12 +260,15 @@ CREATE TABLE surveys (
     allow_multiple_votes BOOLEAN NOT NULL DEFAULT FALSE,
     total_votes INTEGER NOT NULL DEFAULT 0,
     expires_at TIMESTAMP,
+    closed_at TIMESTAMP,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE INDEX idx_surveys_creator ON surveys(creator_id);
 CREATE INDEX idx_surveys_active ON surveys(is_active);
 CREATE INDEX idx_surveys_created_at ON surveys(created_at DESC);
+-- Für den Ablauf-Job: nur offene Umfragen mit Ablaufdatum
+CREATE INDEX idx_surveys_expires_at ON surveys(expires_at) WHERE is_active AND expires_at IS NOT NULL;
 
 -- =====================================================
 -- UMFRAGE-OPTIONEN-TABELLE
@@ -215,6 +297,32 @@ CREATE TABLE survey_votes (
 
 CREATE INDEX idx_survey_votes_survey ON survey_votes(survey_id);
 CREATE INDEX idx_survey_votes_user ON survey_votes(user_id);
+CREATE INDEX idx_survey_votes_created_at ON survey_votes(created_at);
+
+-- =====================================================
+-- UMFRAGE-TEILNEHMER-TABELLE (eine Zeile pro Benutzer und Umfrage, erzwingt Einzelabstimmung)
+-- =====================================================
+CREATE TABLE survey_participants (
+    id BIGSERIAL PRIMARY KEY,
+    survey_id BIGINT NOT NULL REFERENCES surveys(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(survey_id, user_id)
+);
+
+CREATE INDEX idx_survey_participants_user ON survey_participants(user_id);
+
+-- =====================================================
+-- UMFRAGE-ERGEBNISSE-TABELLE (eingefrorene Endstände geschlossener Umfragen, unveränderlich)
+-- =====================================================
+CREATE TABLE survey_results (
+    id BIGSERIAL PRIMARY KEY,
+    survey_id BIGINT NOT NULL REFERENCES surveys(id) ON DELETE CASCADE,
+    option_id BIGINT NOT NULL REFERENCES survey_options(id) ON DELETE CASCADE,
+    vote_count INTEGER NOT NULL,
+    frozen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(survey_id, option_id)
+);
 
 -- =====================================================
 -- ABZEICHEN-TABELLE
@@ -304,10 +412,30 @@ CREATE TABLE messages (
 CREATE INDEX idx_messages_sender ON messages(sender_id);
 CREATE INDEX idx_messages_recipient ON messages(recipient_id);
 CREATE INDEX idx_messages_idea ON messages(idea_id);
-CREATE INDEX idx_messages_conversation ON messages(LEAST(sender_id, recipient_id), GREATEST(sender_id, recipient_id));
+CREATE INDEX idx_messages_conversation ON messages(LEAST(sender_id, recipient_id), GREATEST(sender_id, recipient_id), id DESC);
 CREATE INDEX idx_messages_unread ON messages(recipient_id, is_read) WHERE is_read = FALSE;
 CREATE INDEX idx_messages_created_at ON messages(created_at DESC);
 
+-- =====================================================
+-- KONVERSATIONEN-TABELLE (Lesemodell für den Posteingang, eine Zeile pro Benutzerpaar)
+-- =====================================================
+CREATE TABLE conversations (
+    id BIGSERIAL PRIMARY KEY,
+    user_low_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    user_high_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    last_message_id BIGINT REFERENCES messages(id) ON DELETE SET NULL,
+    last_message_at TIMESTAMP NOT NULL,
+    low_unread_count INTEGER NOT NULL DEFAULT 0,
+    high_unread_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(user_low_id, user_high_id),
+    CONSTRAINT check_ordered_users CHECK (user_low_id < user_high_id)
+);
+
+CREATE INDEX idx_conversations_low ON conversations(user_low_id, last_message_at DESC);
+CREATE INDEX idx_conversations_high ON conversations(user_high_id, last_message_at DESC);
+
 -- =====================================================
 -- IDEEN-GRUPPEN-TABELLE (Automatisch erstellt, wenn eine Idee erstellt wird)
 -- =====================================================
@@ -368,6 +496,20 @@ CREATE TABLE group_message_reads (
 CREATE INDEX idx_group_message_reads_message ON group_message_reads(message_id);
 CREATE INDEX idx_group_message_reads_user ON group_message_reads(user_id);
 
+-- =====================================================
+-- TAGESAKTIVITÄT (tägliche Verdichtung für Zeitreihen, von der Anwendung befüllt)
+-- =====================================================
+CREATE TABLE daily_activity (
+    day DATE PRIMARY KEY,
+    ideas INTEGER NOT NULL DEFAULT 0,
+    likes INTEGER NOT NULL DEFAULT 0,
+    comments INTEGER NOT NULL DEFAULT 0,
+    votes INTEGER NOT NULL DEFAULT 0,
+    messages INTEGER NOT NULL DEFAULT 0,
+    active_users INTEGER NOT NULL DEFAULT 0,
+    computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- =====================================================
 -- FUNKTIONEN UND TRIGGER
 -- =====================================================
@@ -440,15 +582,21 @@ CREATE TRIGGER trigger_update_comment_count
     AFTER INSERT OR DELETE ON comments
     FOR EACH ROW EXECUTE FUNCTION update_idea_comment_count();
 
--- Funktion zum Aktualisieren der Kommentar-Reaktions-Zählung
+-- Funktion zum Aktualisieren der Kommentar-Reaktions-Zählung und des Emoji-Histogramms
 CREATE OR REPLACE FUNCTION update_comment_reaction_count()
 RETURNS TRIGGER AS $$
 BEGIN
     IF TG_OP = 'INSERT' THEN
         UPDATE comments SET reaction_count = reaction_count + 1 WHERE id = NEW.comment_id;
+        INSERT INTO comment_reaction_counts (comment_id, emoji, reaction_count) VALUES (NEW.comment_id, NEW.emoji, 1)
+            ON CONFLICT (comment_id, emoji) DO UPDATE SET reaction_count = comment_reaction_counts.reaction_count + 1;
         RETURN NEW;
     ELSIF TG_OP = 'DELETE' THEN
         UPDATE comments SET reaction_count = reaction_count - 1 WHERE id = OLD.comment_id;
+        UPDATE comment_reaction_counts SET reaction_count = reaction_count - 1
+            WHERE comment_id = OLD.comment_id AND emoji = OLD.emoji;
+        DELETE FROM comment_reaction_counts
+            WHERE comment_id = OLD.comment_id AND emoji = OLD.emoji AND reaction_count <= 0;
         RETURN OLD;
     END IF;
     RETURN NULL;
@@ -459,15 +607,92 @@ CREATE TRIGGER trigger_update_reaction_count
     AFTER INSERT OR DELETE ON comment_reactions
     FOR EACH ROW EXECUTE FUNCTION update_comment_reaction_count();
 
--- Funktion zum Aktualisieren der Umfrage-Abstimmungs-Zählung
-CREATE OR REPLACE FUNCTION update_survey_vote_count()
+-- Funktion zum Aktualisieren der Checklisten-Zähler und des Fortschritts der Idee
+-- (konstanter Aufwand pro Änderung statt Neuberechnung über alle Elemente)
+CREATE OR REPLACE FUNCTION update_checklist_counts()
 RETURNS TRIGGER AS $$
+DECLARE
+    total_delta INTEGER := 0;
+    completed_delta INTEGER := 0;
+    target_idea_id BIGINT;
 BEGIN
     IF TG_OP = 'INSERT' THEN
-        UPDATE survey_options SET vote_count = vote_count + 1 WHERE id = NEW.option_id;
-        UPDATE surveys SET total_votes = total_votes + 1 WHERE id = NEW.survey_id;
-        RETURN NEW;
-    ELSIF TG_OP = 'DELETE' THEN
+        target_idea_id := NEW.idea_id;
+        total_delta := 1;
+        completed_delta := CASE WHEN NEW.is_completed THEN 1 ELSE 0 END;
+    ELSIF TG_OP = 'UPDATE' THEN
+        target_idea_id := NEW.idea_id;
+        completed_delta := CASE WHEN NEW.is_completed THEN 1 ELSE -1 END;
+    ELSE
+        target_idea_id := OLD.idea_id;
+        total_delta := -1;
+        completed_delta := CASE WHEN OLD.is_completed THEN -1 ELSE 0 END;
+    END IF;
+
+    -- Ohne Elemente bleibt der Fortschritt unverändert; Begrenzung schützt bei Zähler-Drift vor dem CHECK
+    UPDATE ideas SET
+        total_items = total_items + total_delta,
+        completed_items = completed_items + completed_delta,
+        progress_percentage = CASE
+            WHEN total_items + total_delta > 0
+            THEN LEAST(100, GREATEST(0, ROUND(100.0 * (completed_items + completed_delta) / (total_items + total_delta))))::INTEGER
+            ELSE progress_percentage
+        END
+    WHERE id = target_idea_id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER trigger_update_checklist_counts
+    AFTER INSERT OR DELETE ON checklist_items
+    FOR EACH ROW EXECUTE FUNCTION update_checklist_counts();
+
+CREATE TRIGGER trigger_update_checklist_completed_count
+    AFTER UPDATE OF is_completed ON checklist_items
+    FOR EACH ROW WHEN (OLD.is_completed IS DISTINCT FROM NEW.is_completed)
+    EXECUTE FUNCTION update_checklist_counts();
+
+-- Funktion zum Zählen der Verweise auf Datei-Inhalte (auch beim kaskadierten Löschen von Ideen)
+CREATE OR REPLACE FUNCTION update_blob_ref_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' AND NEW.blob_id IS NOT NULL THEN
+        UPDATE file_blobs SET ref_count = ref_count + 1, unreferenced_since = NULL
+        WHERE id = NEW.blob_id;
+    ELSIF TG_OP = 'DELETE' AND OLD.blob_id IS NOT NULL THEN
+        UPDATE file_blobs SET ref_count = ref_count - 1,
+            unreferenced_since = CASE WHEN ref_count = 1 THEN CURRENT_TIMESTAMP ELSE NULL END
+        WHERE id = OLD.blob_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER trigger_update_blob_ref_count
+    AFTER INSERT OR DELETE ON file_attachments
+    FOR EACH ROW EXECUTE FUNCTION update_blob_ref_count();
+
+-- Funktion zum Festhalten gelöschter Ideen für den Änderungs-Feed
+CREATE OR REPLACE FUNCTION record_idea_tombstone()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO idea_tombstones (idea_id, deleted_at) VALUES (OLD.id, CURRENT_TIMESTAMP)
+    ON CONFLICT (idea_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER trigger_record_idea_tombstone
+    AFTER DELETE ON ideas
+    FOR EACH ROW EXECUTE FUNCTION record_idea_tombstone();
+
+-- Funktion zum Aktualisieren der Umfrage-Abstimmungs-Zählung beim Löschen von Stimmen
+-- Hinweis: Neue Stimmen werden von der Anwendung gebündelt hochgezählt (SurveyTallyService),
+-- damit nicht jede Stimme die Zeile der Umfrage sperrt
+CREATE OR REPLACE FUNCTION update_survey_vote_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
         UPDATE survey_options SET vote_count = vote_count - 1 WHERE id = OLD.option_id;
         UPDATE surveys SET total_votes = total_votes - 1 WHERE id = OLD.survey_id;
         RETURN OLD;
@@ -477,9 +702,21 @@ END;
 $$ language 'plpgsql';
 
 CREATE TRIGGER trigger_update_vote_count
-    AFTER INSERT OR DELETE ON survey_votes
+    AFTER DELETE ON survey_votes
     FOR EACH ROW EXECUTE FUNCTION update_survey_vote_count();
 
+-- Eingefrorene Umfrage-Ergebnisse dürfen nicht mehr geändert werden (Löschen nur mit der Umfrage)
+CREATE OR REPLACE FUNCTION prevent_survey_result_update()
+RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'survey_results sind unveränderlich';
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER trigger_prevent_survey_result_update
+    BEFORE UPDATE ON survey_results
+    FOR EACH ROW EXECUTE FUNCTION prevent_survey_result_update();
+
 -- =====================================================
 -- SEED-DATEN
 -- =====================================================
@@ -0,0 +1,62 @@
+-- Checklisten-Zähler auf Ideen: Spalten, Trigger und einmalige Befüllung
+ALTER TABLE ideas ADD COLUMN IF NOT EXISTS total_items INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ideas ADD COLUMN IF NOT EXISTS completed_items INTEGER NOT NULL DEFAULT 0;
+
+-- Funktion zum Aktualisieren der Checklisten-Zähler und des Fortschritts der Idee
+-- (konstanter Aufwand pro Änderung statt Neuberechnung über alle Elemente)
+CREATE OR REPLACE FUNCTION update_checklist_counts()
+RETURNS TRIGGER AS $$
+DECLARE
+    total_delta INTEGER := 0;
+    completed_delta INTEGER := 0;
+    target_idea_id BIGINT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        target_idea_id := NEW.idea_id;
+        total_delta := 1;
+        completed_delta := CASE WHEN NEW.is_completed THEN 1 ELSE 0 END;
+    ELSIF TG_OP = 'UPDATE' THEN
+        target_idea_id := NEW.idea_id;
+        completed_delta := CASE WHEN NEW.is_completed THEN 1 ELSE -1 END;
+    ELSE
+        target_idea_id := OLD.idea_id;
+        total_delta := -1;
+        completed_delta := CASE WHEN OLD.is_completed THEN -1 ELSE 0 END;
+    END IF;
+
+    -- Ohne Elemente bleibt der Fortschritt unverändert; Begrenzung schützt bei Zähler-Drift vor dem CHECK
+    UPDATE ideas SET
+        total_items = total_items + total_delta,
+        completed_items = completed_items + completed_delta,
+        progress_percentage = CASE
+            WHEN total_items + total_delta > 0
+            THEN LEAST(100, GREATEST(0, ROUND(100.0 * (completed_items + completed_delta) / (total_items + total_delta))))::INTEGER
+            ELSE progress_percentage
+        END
+    WHERE id = target_idea_id;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS trigger_update_checklist_counts ON checklist_items;
+CREATE TRIGGER trigger_update_checklist_counts
+    AFTER INSERT OR DELETE ON checklist_items
+    FOR EACH ROW EXECUTE FUNCTION update_checklist_counts();
+
+DROP TRIGGER IF EXISTS trigger_update_checklist_completed_count ON checklist_items;
+CREATE TRIGGER trigger_update_checklist_completed_count
+    AFTER UPDATE OF is_completed ON checklist_items
+    FOR EACH ROW WHEN (OLD.is_completed IS DISTINCT FROM NEW.is_completed)
+    EXECUTE FUNCTION update_checklist_counts();
+
+-- Zähler einmalig aus den vorhandenen Elementen berechnen (gleiche Abfrage wie der Abgleich-Job)
+UPDATE ideas i SET total_items = c.total, completed_items = c.completed,
+    progress_percentage = CASE WHEN c.total > 0 THEN ROUND(100.0 * c.completed / c.total)::INTEGER
+    ELSE i.progress_percentage END
+FROM (SELECT x.id, COUNT(ci.id) AS total, COUNT(ci.id) FILTER (WHERE ci.is_completed) AS completed
+      FROM ideas x LEFT JOIN checklist_items ci ON ci.idea_id = x.id GROUP BY x.id) c
+WHERE i.id = c.id AND (i.total_items <> c.total OR i.completed_items <> c.completed);
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS ideas_with_checklist, SUM(total_items) AS items, SUM(completed_items) AS completed
+FROM ideas WHERE total_items > 0;
@@ -0,0 +1,5 @@
+-- Zusammengesetzter Index für das Cursor-Paging von Kommentaren (neueste zuerst)
+CREATE INDEX IF NOT EXISTS idx_comments_idea_created_at ON comments(idea_id, created_at DESC, id DESC);
+
+-- Ergebnis prüfen
+SELECT indexname, indexdef FROM pg_indexes WHERE indexname = 'idx_comments_idea_created_at';
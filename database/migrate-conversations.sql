@@ -0,0 +1,40 @@
+-- Konversationen-Lesemodell für bestehende Installationen anlegen und aus messages befüllen
+CREATE TABLE IF NOT EXISTS conversations (
+    id BIGSERIAL PRIMARY KEY,
+    user_low_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    user_high_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    last_message_id BIGINT REFERENCES messages(id) ON DELETE SET NULL,
+    last_message_at TIMESTAMP NOT NULL,
+    low_unread_count INTEGER NOT NULL DEFAULT 0,
+    high_unread_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(user_low_id, user_high_id),
+    CONSTRAINT check_ordered_users CHECK (user_low_id < user_high_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_conversations_low ON conversations(user_low_id, last_message_at DESC);
+CREATE INDEX IF NOT EXISTS idx_conversations_high ON conversations(user_high_id, last_message_at DESC);
+
+-- Vorhandene Zeilen neu berechnen (idempotent)
+INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_at,
+                           low_unread_count, high_unread_count, created_at, updated_at)
+SELECT LEAST(sender_id, recipient_id),
+       GREATEST(sender_id, recipient_id),
+       MAX(id),
+       MAX(created_at),
+       COUNT(*) FILTER (WHERE is_read = FALSE AND recipient_id < sender_id),
+       COUNT(*) FILTER (WHERE is_read = FALSE AND recipient_id > sender_id),
+       MIN(created_at),
+       CURRENT_TIMESTAMP
+FROM messages
+GROUP BY LEAST(sender_id, recipient_id), GREATEST(sender_id, recipient_id)
+ON CONFLICT (user_low_id, user_high_id) DO UPDATE SET
+    last_message_id = EXCLUDED.last_message_id,
+    last_message_at = EXCLUDED.last_message_at,
+    low_unread_count = EXCLUDED.low_unread_count,
+    high_unread_count = EXCLUDED.high_unread_count,
+    updated_at = EXCLUDED.updated_at;
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS conversations FROM conversations;
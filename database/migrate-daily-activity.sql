@@ -0,0 +1,19 @@
+-- Migration: Tägliche Verdichtung der Aktivität für Zeitreihen (/dashboard/timeseries)
+-- Die Tabelle wird beim nächsten Start der Anwendung automatisch rückwirkend befüllt
+
+CREATE TABLE IF NOT EXISTS daily_activity (
+    day DATE PRIMARY KEY,
+    ideas INTEGER NOT NULL DEFAULT 0,
+    likes INTEGER NOT NULL DEFAULT 0,
+    comments INTEGER NOT NULL DEFAULT 0,
+    votes INTEGER NOT NULL DEFAULT 0,
+    messages INTEGER NOT NULL DEFAULT 0,
+    active_users INTEGER NOT NULL DEFAULT 0,
+    computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Tagesbereiche der Verdichtung über created_at lesen, wie bei den übrigen Faktentabellen
+CREATE INDEX IF NOT EXISTS idx_survey_votes_created_at ON survey_votes(created_at);
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS days, MIN(day) AS first_day, MAX(day) AS last_day FROM daily_activity;
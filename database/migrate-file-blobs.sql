@@ -0,0 +1,39 @@
+-- Inhaltsadressierter Dateispeicher: Tabelle, Verweis auf Anhänge und Verweiszähler
+-- Bestehende Anhänge behalten blob_id = NULL und werden weiterhin aus uploads/{ideaId}/ gelesen
+CREATE TABLE IF NOT EXISTS file_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL UNIQUE,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    unreferenced_since TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_file_blobs_unreferenced ON file_blobs(unreferenced_since) WHERE ref_count = 0;
+
+ALTER TABLE file_attachments ADD COLUMN IF NOT EXISTS blob_id BIGINT REFERENCES file_blobs(id);
+CREATE INDEX IF NOT EXISTS idx_file_attachments_blob ON file_attachments(blob_id);
+
+-- Funktion zum Zählen der Verweise auf Datei-Inhalte (auch beim kaskadierten Löschen von Ideen)
+CREATE OR REPLACE FUNCTION update_blob_ref_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' AND NEW.blob_id IS NOT NULL THEN
+        UPDATE file_blobs SET ref_count = ref_count + 1, unreferenced_since = NULL
+        WHERE id = NEW.blob_id;
+    ELSIF TG_OP = 'DELETE' AND OLD.blob_id IS NOT NULL THEN
+        UPDATE file_blobs SET ref_count = ref_count - 1,
+            unreferenced_since = CASE WHEN ref_count = 1 THEN CURRENT_TIMESTAMP ELSE NULL END
+        WHERE id = OLD.blob_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS trigger_update_blob_ref_count ON file_attachments;
+CREATE TRIGGER trigger_update_blob_ref_count
+    AFTER INSERT OR DELETE ON file_attachments
+    FOR EACH ROW EXECUTE FUNCTION update_blob_ref_count();
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS attachments, COUNT(blob_id) AS attachments_in_blob_store FROM file_attachments;
@@ -0,0 +1,27 @@
+-- Inkrementeller Änderungs-Feed für Ideen: Index für fortsetzbare Abfragen und Tombstones für Löschungen
+CREATE INDEX IF NOT EXISTS idx_ideas_updated_at_id ON ideas(updated_at, id);
+
+CREATE TABLE IF NOT EXISTS idea_tombstones (
+    idea_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idea_tombstones_deleted_at_id ON idea_tombstones(deleted_at, idea_id);
+
+-- Funktion zum Festhalten gelöschter Ideen für den Änderungs-Feed
+CREATE OR REPLACE FUNCTION record_idea_tombstone()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO idea_tombstones (idea_id, deleted_at) VALUES (OLD.id, CURRENT_TIMESTAMP)
+    ON CONFLICT (idea_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS trigger_record_idea_tombstone ON ideas;
+CREATE TRIGGER trigger_record_idea_tombstone
+    AFTER DELETE ON ideas
+    FOR EACH ROW EXECUTE FUNCTION record_idea_tombstone();
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS ideas, (SELECT COUNT(*) FROM idea_tombstones) AS tombstones FROM ideas;
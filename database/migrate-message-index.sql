@@ -0,0 +1,6 @@
+-- Konversationsindex um die Nachrichten-ID erweitern (Keyset-Paging "neueste zuerst")
+DROP INDEX IF EXISTS idx_messages_conversation;
+CREATE INDEX idx_messages_conversation ON messages(LEAST(sender_id, recipient_id), GREATEST(sender_id, recipient_id), id DESC);
+
+-- Ergebnis prüfen
+SELECT indexname, indexdef FROM pg_indexes WHERE indexname = 'idx_messages_conversation';
@@ -0,0 +1,39 @@
+-- Emoji-Histogramm pro Kommentar für bestehende Installationen anlegen und befüllen
+CREATE TABLE IF NOT EXISTS comment_reaction_counts (
+    id BIGSERIAL PRIMARY KEY,
+    comment_id BIGINT NOT NULL REFERENCES comments(id) ON DELETE CASCADE,
+    emoji VARCHAR(20) NOT NULL,
+    reaction_count INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(comment_id, emoji)
+);
+
+-- Funktion zum Aktualisieren der Kommentar-Reaktions-Zählung und des Emoji-Histogramms
+CREATE OR REPLACE FUNCTION update_comment_reaction_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE comments SET reaction_count = reaction_count + 1 WHERE id = NEW.comment_id;
+        INSERT INTO comment_reaction_counts (comment_id, emoji, reaction_count) VALUES (NEW.comment_id, NEW.emoji, 1)
+            ON CONFLICT (comment_id, emoji) DO UPDATE SET reaction_count = comment_reaction_counts.reaction_count + 1;
+        RETURN NEW;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE comments SET reaction_count = reaction_count - 1 WHERE id = OLD.comment_id;
+        UPDATE comment_reaction_counts SET reaction_count = reaction_count - 1
+            WHERE comment_id = OLD.comment_id AND emoji = OLD.emoji;
+        DELETE FROM comment_reaction_counts
+            WHERE comment_id = OLD.comment_id AND emoji = OLD.emoji AND reaction_count <= 0;
+        RETURN OLD;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- Histogramm aus den vorhandenen Reaktionen neu berechnen (idempotent)
+DELETE FROM comment_reaction_counts;
+INSERT INTO comment_reaction_counts (comment_id, emoji, reaction_count)
+SELECT comment_id, emoji, COUNT(*)
+FROM comment_reactions
+GROUP BY comment_id, emoji;
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS histogram_rows FROM comment_reaction_counts;
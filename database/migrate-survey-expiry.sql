@@ -0,0 +1,39 @@
+-- Ablauf von Umfragen: Schließzeitpunkt, Index für den Ablauf-Job und eingefrorene Ergebnisse
+ALTER TABLE surveys ADD COLUMN IF NOT EXISTS closed_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_surveys_expires_at ON surveys(expires_at) WHERE is_active AND expires_at IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS survey_results (
+    id BIGSERIAL PRIMARY KEY,
+    survey_id BIGINT NOT NULL REFERENCES surveys(id) ON DELETE CASCADE,
+    option_id BIGINT NOT NULL REFERENCES survey_options(id) ON DELETE CASCADE,
+    vote_count INTEGER NOT NULL,
+    frozen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(survey_id, option_id)
+);
+
+-- Eingefrorene Umfrage-Ergebnisse dürfen nicht mehr geändert werden (Löschen nur mit der Umfrage)
+CREATE OR REPLACE FUNCTION prevent_survey_result_update()
+RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'survey_results sind unveränderlich';
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS trigger_prevent_survey_result_update ON survey_results;
+CREATE TRIGGER trigger_prevent_survey_result_update
+    BEFORE UPDATE ON survey_results
+    FOR EACH ROW EXECUTE FUNCTION prevent_survey_result_update();
+
+-- Bereits deaktivierte Umfragen mit ihren aktuellen Stimmen einfrieren
+INSERT INTO survey_results (survey_id, option_id, vote_count, frozen_at)
+SELECT o.survey_id, o.id, (SELECT COUNT(*) FROM survey_votes v WHERE v.option_id = o.id), CURRENT_TIMESTAMP
+FROM survey_options o
+JOIN surveys s ON s.id = o.survey_id
+WHERE NOT s.is_active AND s.closed_at IS NULL
+ON CONFLICT (survey_id, option_id) DO NOTHING;
+
+UPDATE surveys SET closed_at = CURRENT_TIMESTAMP WHERE NOT is_active AND closed_at IS NULL;
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS closed_surveys FROM surveys WHERE closed_at IS NOT NULL;
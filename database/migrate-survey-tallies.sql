@@ -0,0 +1,44 @@
+-- Umfrage-Teilnehmer anlegen und Abstimmungs-Trigger auf Löschungen beschränken
+CREATE TABLE IF NOT EXISTS survey_participants (
+    id BIGSERIAL PRIMARY KEY,
+    survey_id BIGINT NOT NULL REFERENCES surveys(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(survey_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_survey_participants_user ON survey_participants(user_id);
+
+-- Teilnehmer aus vorhandenen Stimmen übernehmen
+INSERT INTO survey_participants (survey_id, user_id, created_at)
+SELECT survey_id, user_id, MIN(created_at)
+FROM survey_votes
+GROUP BY survey_id, user_id
+ON CONFLICT (survey_id, user_id) DO NOTHING;
+
+-- Funktion zum Aktualisieren der Umfrage-Abstimmungs-Zählung beim Löschen von Stimmen
+-- Hinweis: Neue Stimmen werden von der Anwendung gebündelt hochgezählt (SurveyTallyService),
+-- damit nicht jede Stimme die Zeile der Umfrage sperrt
+CREATE OR REPLACE FUNCTION update_survey_vote_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        UPDATE survey_options SET vote_count = vote_count - 1 WHERE id = OLD.option_id;
+        UPDATE surveys SET total_votes = total_votes - 1 WHERE id = OLD.survey_id;
+        RETURN OLD;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS trigger_update_vote_count ON survey_votes;
+CREATE TRIGGER trigger_update_vote_count
+    AFTER DELETE ON survey_votes
+    FOR EACH ROW EXECUTE FUNCTION update_survey_vote_count();
+
+-- Zählerstände einmalig aus den Stimmen neu berechnen
+UPDATE survey_options o SET vote_count = (SELECT COUNT(*) FROM survey_votes v WHERE v.option_id = o.id);
+UPDATE surveys s SET total_votes = (SELECT COUNT(*) FROM survey_votes v WHERE v.survey_id = s.id);
+
+-- Ergebnis prüfen
+SELECT COUNT(*) AS participants FROM survey_participants;
@@ -8,6 +8,7 @@ import {
 } from '@heroicons/react/24/outline';
 import { format } from 'date-fns';
 import api from '../services/api';
+import exportService from '../services/exportService';
 import { User, AuditLog } from '../types';
 import toast from 'react-hot-toast';
 
@@ -335,15 +336,16 @@ function AuditLogs() {
 
 function ExportData() {
   const [exporting, setExporting] = useState<string | null>(null);
+  const [progress, setProgress] = useState(0);
 
   const handleExport = async (type: string, format: string) => {
     setExporting(`${type}-${format}`);
+    setProgress(0);
     try {
-      const response = await api.get(`/export/${type}/${format}`, {
-        responseType: 'blob',
-      });
+      // Große Exporte laufen im Hintergrund, der Fortschritt wird abgefragt
+      const data = await exportService.runExportJob(type, format, (job) => setProgress(job.progress));
 
-      const url = window.URL.createObjectURL(response.data);
+      const url = window.URL.createObjectURL(data);
       const a = document.createElement('a');
       a.href = url;
       a.download = `${type}-export-${new Date().toISOString().split('T')[0]}.${format}`;
@@ -363,19 +365,19 @@ function ExportData() {
       title: 'Statistikbericht',
       description: 'KPIs und Dashboard-Statistiken exportieren',
       type: 'statistics',
-      formats: ['csv', 'pdf'],
+      formats: ['csv', 'pdf', 'xlsx'],
     },
     {
       title: 'Ideen-Daten',
       description: 'Alle Ideen mit Details exportieren',
       type: 'ideas',
-      formats: ['csv'],
+      formats: ['csv', 'pdf', 'xlsx'],
     },
     {
       title: 'Benutzeraktivität',
       description: 'Benutzeraktivität und Beiträge exportieren',
       type: 'users',
-      formats: ['csv'],
+      formats: ['csv', 'xlsx'],
     },
   ];
 
@@ -410,6 +412,7 @@ function ExportData() {
                   <ArrowDownTrayIcon className="w-4 h-4" />
                 )}
                 {format.toUpperCase()}
+                {exporting === `${option.type}-${format}` && progress > 0 && ` ${progress}%`}
               </button>
             ))}
           </div>
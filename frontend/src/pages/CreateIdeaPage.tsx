@@ -30,7 +30,7 @@ const CATEGORIES = [
   'Sonstige',
 ];
 
-const MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+const MAX_FILE_SIZE = 200 * 1024 * 1024; // 200MB (große Dateien werden stückweise hochgeladen)
 
 // Dateityp-Konfigurationen
 const FILE_TYPE_CONFIG: Record<string, { icon: React.ComponentType<{ className?: string }>; color: string; label: string }> = {
@@ -116,7 +116,7 @@ export default function CreateIdeaPage() {
     // Abgelehnte Dateien verarbeiten
     rejectedFiles.forEach(({ file, errors }) => {
       const errorMessages = errors.map((e: any) => {
-        if (e.code === 'file-too-large') return 'Datei ist zu groß (max. 10MB)';
+        if (e.code === 'file-too-large') return 'Datei ist zu groß (max. 200MB)';
         if (e.code === 'file-invalid-type') return 'Dateityp wird nicht unterstützt';
         return e.message;
       }).join(', ');
@@ -673,7 +673,7 @@ export default function CreateIdeaPage() {
                 </span>
               </div>
               <p className="text-xs text-gray-400 mt-3">
-                Max. 10MB pro Datei
+                Max. 200MB pro Datei
               </p>
             </div>
           </div>
@@ -24,6 +24,13 @@ import { useAuth } from '../context/AuthContext';
 import { format } from 'date-fns';
 import toast from 'react-hot-toast';
 
+const COMMENT_PAGE_SIZE = 50;
+const COMMENT_SINCE_PAGE_SIZE = 100;
+const COMMENT_REFRESH_INTERVAL_MS = 15000;
+
+// Bildtypen, für die der Server Vorschaubilder erzeugt
+const THUMBNAIL_TYPES = ['image/jpeg', 'image/png', 'image/gif'];
+
 const EMOJI_LIST = ['thumbs_up', 'heart', 'celebrate', 'thinking', 'fire'];
 
 const EMOJI_DISPLAY: Record<string, string> = {
@@ -40,6 +47,8 @@ export default function IdeaDetailPage() {
   const navigate = useNavigate();
   const [idea, setIdea] = useState<Idea | null>(null);
   const [comments, setComments] = useState<Comment[]>([]);
+  const [hasMoreComments, setHasMoreComments] = useState(false);
+  const [loadingMoreComments, setLoadingMoreComments] = useState(false);
   const [loading, setLoading] = useState(true);
   const [newComment, setNewComment] = useState('');
   const [submittingComment, setSubmittingComment] = useState(false);
@@ -70,6 +79,13 @@ export default function IdeaDetailPage() {
     }
   }, [id]);
 
+  // Neue Kommentare regelmäßig inkrementell nachladen
+  useEffect(() => {
+    if (!id) return;
+    const interval = setInterval(refreshComments, COMMENT_REFRESH_INTERVAL_MS);
+    return () => clearInterval(interval);
+  }, [id, comments]);
+
   const fetchIdea = async () => {
     try {
       const data = await ideaService.getIdea(Number(id));
@@ -112,13 +128,58 @@ export default function IdeaDetailPage() {
 
   const fetchComments = async () => {
     try {
-      const data = await ideaService.getComments(Number(id));
+      const data = await ideaService.getComments(Number(id), COMMENT_PAGE_SIZE);
       setComments(data);
+      setHasMoreComments(data.length === COMMENT_PAGE_SIZE);
     } catch (error) {
       console.error('Failed to fetch comments:', error);
     }
   };
 
+  const loadMoreComments = async () => {
+    if (comments.length === 0) return;
+    setLoadingMoreComments(true);
+    try {
+      const data = await ideaService.getComments(
+        Number(id),
+        COMMENT_PAGE_SIZE,
+        comments[comments.length - 1].id
+      );
+      setComments((prev) => [...prev, ...data]);
+      setHasMoreComments(data.length === COMMENT_PAGE_SIZE);
+    } catch (error) {
+      console.error('Failed to load more comments:', error);
+    } finally {
+      setLoadingMoreComments(false);
+    }
+  };
+
+  const refreshComments = async () => {
+    if (comments.length === 0) return;
+    try {
+      // Seitenweise ab dem jüngsten bekannten Kommentar nachladen, bis keine volle Seite mehr kommt
+      const received: Comment[] = [];
+      let cursor = comments[0].id;
+      let page: Comment[];
+      do {
+        page = await ideaService.getCommentsSince(Number(id), cursor, COMMENT_SINCE_PAGE_SIZE);
+        received.push(...page);
+        if (page.length > 0) cursor = page[page.length - 1].id;
+      } while (page.length === COMMENT_SINCE_PAGE_SIZE);
+
+      if (received.length > 0) {
+        // Die Liste ist neueste zuerst sortiert, die Antwort älteste zuerst
+        const newest = received.reverse();
+        setComments((prev) => {
+          const knownIds = new Set(prev.map((c) => c.id));
+          return [...newest.filter((c) => !knownIds.has(c.id)), ...prev];
+        });
+      }
+    } catch (error) {
+      console.error('Failed to refresh comments:', error);
+    }
+  };
+
   const handleLike = async () => {
     if (!idea) return;
 
@@ -249,6 +310,20 @@ export default function IdeaDetailPage() {
     }
   };
 
+  const handleDownloadArchive = async () => {
+    try {
+      const blob = await ideaService.downloadArchive(Number(id));
+      const url = window.URL.createObjectURL(blob);
+      const a = document.createElement('a');
+      a.href = url;
+      a.download = `idee-${id}-anhaenge.zip`;
+      a.click();
+      window.URL.revokeObjectURL(url);
+    } catch (error) {
+      toast.error('Fehler beim Herunterladen der Anhänge');
+    }
+  };
+
   // Checklisten-Handler
   const handleAddChecklistItem = async (e: React.FormEvent) => {
     e.preventDefault();
@@ -596,10 +671,22 @@ export default function IdeaDetailPage() {
         {/* Dateianhänge */}
         {idea.attachments.length > 0 && (
           <div className="p-6 border-b border-gray-100 dark:border-gray-700">
-            <h3 className="font-medium text-gray-900 dark:text-white mb-3 flex items-center gap-2">
-              <PaperClipIcon className="w-5 h-5" />
-              Anhänge
-            </h3>
+            <div className="flex items-center justify-between mb-3">
+              <h3 className="font-medium text-gray-900 dark:text-white flex items-center gap-2">
+                <PaperClipIcon className="w-5 h-5" />
+                Anhänge
+              </h3>
+              {idea.attachments.length > 1 && (
+                <button
+                  onClick={handleDownloadArchive}
+                  className="btn-secondary text-sm flex items-center gap-1"
+                  title="Alle Anhänge als ZIP herunterladen"
+                >
+                  <ArrowDownTrayIcon className="w-4 h-4" />
+                  Alle herunterladen
+                </button>
+              )}
+            </div>
             <div className="space-y-2">
               {idea.attachments.map((file) => (
                 <div
@@ -607,7 +694,11 @@ export default function IdeaDetailPage() {
                   className="flex items-center justify-between p-3 bg-gray-50 dark:bg-gray-700/50 rounded-lg"
                 >
                   <div className="flex items-center gap-3">
-                    <PaperClipIcon className="w-5 h-5 text-gray-400" />
+                    {THUMBNAIL_TYPES.includes(file.mimeType) ? (
+                      <AttachmentThumbnail ideaId={idea.id} fileId={file.id} alt={file.originalName} />
+                    ) : (
+                      <PaperClipIcon className="w-5 h-5 text-gray-400" />
+                    )}
                     <div>
                       <p className="font-medium text-gray-900 dark:text-white">
                         {file.originalName}
@@ -680,7 +771,7 @@ export default function IdeaDetailPage() {
       <div className="card">
         <div className="p-6 border-b border-gray-100 dark:border-gray-700">
           <h2 className="text-lg font-semibold text-gray-900 dark:text-white">
-            Kommentare ({comments.length})
+            Kommentare ({idea.commentCount})
           </h2>
         </div>
 
@@ -779,6 +870,17 @@ export default function IdeaDetailPage() {
               </div>
             ))
           )}
+          {hasMoreComments && (
+            <div className="p-4 text-center">
+              <button
+                onClick={loadMoreComments}
+                disabled={loadingMoreComments}
+                className="btn-secondary"
+              >
+                {loadingMoreComments ? 'Wird geladen...' : 'Ältere Kommentare laden'}
+              </button>
+            </div>
+          )}
         </div>
       </div>
 
@@ -926,3 +1028,30 @@ function CompletionConfirmationDialog({ onConfirm, onCancel }: CompletionConfirm
     </div>
   );
 }
+
+// Lädt das kleine Vorschaubild statt des Originals; bei Fehlern bleibt das Büroklammer-Symbol
+function AttachmentThumbnail({ ideaId, fileId, alt }: { ideaId: number; fileId: number; alt: string }) {
+  const [url, setUrl] = useState<string | null>(null);
+
+  useEffect(() => {
+    let objectUrl: string | null = null;
+    let cancelled = false;
+    ideaService
+      .getThumbnail(ideaId, fileId)
+      .then((blob) => {
+        if (cancelled) return;
+        objectUrl = window.URL.createObjectURL(blob);
+        setUrl(objectUrl);
+      })
+      .catch(() => setUrl(null));
+    return () => {
+      cancelled = true;
+      if (objectUrl) window.URL.revokeObjectURL(objectUrl);
+    };
+  }, [ideaId, fileId]);
+
+  if (!url) {
+    return <PaperClipIcon className="w-5 h-5 text-gray-400" />;
+  }
+  return <img src={url} alt={alt} className="w-12 h-12 object-cover rounded" loading="lazy" />;
+}
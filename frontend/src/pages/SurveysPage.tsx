@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import { PlusIcon, XMarkIcon, ChartBarIcon, InformationCircleIcon, EyeSlashIcon, CheckIcon } from '@heroicons/react/24/outline';
 import { CheckCircleIcon } from '@heroicons/react/24/solid';
 import { surveyService } from '../services/surveyService';
-import { Survey } from '../types';
+import { Survey, SurveyResults } from '../types';
 import { useAuth } from '../context/AuthContext';
 import { format } from 'date-fns';
 import toast from 'react-hot-toast';
@@ -18,6 +18,27 @@ export default function SurveysPage() {
     fetchSurveys();
   }, []);
 
+  // Solange die Details offen sind, Live-Ergebnisse der Umfrage übernehmen
+  useEffect(() => {
+    if (!selectedSurvey) return;
+    const applyResults = (results: SurveyResults) => {
+      const apply = (s: Survey): Survey =>
+        s.id !== results.surveyId
+          ? s
+          : {
+              ...s,
+              totalVotes: results.totalVotes,
+              options: s.options.map((opt) => {
+                const result = results.options.find((r) => r.id === opt.id);
+                return result ? { ...opt, voteCount: result.voteCount, percentage: result.percentage } : opt;
+              }),
+            };
+      setSurveys((prev) => prev.map(apply));
+      setSelectedSurvey((prev) => (prev ? apply(prev) : prev));
+    };
+    return surveyService.subscribeResults(selectedSurvey.id, applyResults);
+  }, [selectedSurvey?.id]);
+
   const fetchSurveys = async () => {
     try {
       const response = await surveyService.getSurveys({ size: 50 });
@@ -1,5 +1,5 @@
 import api from './api';
-import { DashboardStats, TopIdea, Idea, Survey, Notification } from '../types';
+import { DashboardStats, DailyActivity, TopIdea, Idea, Survey, Notification } from '../types';
 
 export const dashboardService = {
   async getStats(): Promise<DashboardStats> {
@@ -7,6 +7,12 @@ export const dashboardService = {
     return response.data;
   },
 
+  // Tägliche Aktivität im Zeitraum (ISO-Datum, jeweils einschließlich); ohne Angabe die letzten 30 Tage
+  async getTimeseries(from?: string, to?: string): Promise<DailyActivity[]> {
+    const response = await api.get<DailyActivity[]>('/dashboard/timeseries', { params: { from, to } });
+    return response.data;
+  },
+
   async getTopIdeas(): Promise<TopIdea[]> {
     const response = await api.get<TopIdea[]>('/dashboard/top-ideas');
     return response.data;
@@ -1,4 +1,7 @@
 import api from './api';
+import { ExportJob } from '../types';
+
+const JOB_POLL_INTERVAL_MS = 1000;
 
 const exportService = {
   async exportIdeasCsv(): Promise<void> {
@@ -8,6 +11,13 @@ const exportService = {
     downloadFile(response.data, 'ideas.csv', 'text/csv');
   },
 
+  async exportIdeasPdf(): Promise<void> {
+    const response = await api.get('/export/ideas/pdf', {
+      responseType: 'blob'
+    });
+    downloadFile(response.data, 'ideas.pdf', 'application/pdf');
+  },
+
   async exportStatisticsCsv(): Promise<void> {
     const response = await api.get('/export/statistics/csv', {
       responseType: 'blob'
@@ -20,6 +30,24 @@ const exportService = {
       responseType: 'blob'
     });
     downloadFile(response.data, 'statistics.pdf', 'application/pdf');
+  },
+
+  // Export im Hintergrund: Auftrag anlegen, Fortschritt abfragen, fertige Datei herunterladen
+  async runExportJob(type: string, format: string, onProgress?: (job: ExportJob) => void): Promise<Blob> {
+    let { data: job } = await api.post<ExportJob>('/export/jobs', { type, format });
+    while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+      onProgress?.(job);
+      await new Promise((resolve) => setTimeout(resolve, JOB_POLL_INTERVAL_MS));
+      ({ data: job } = await api.get<ExportJob>(`/export/jobs/${job.jobId}`));
+    }
+    if (job.status === 'FAILED') {
+      throw new Error(job.error ?? 'Export fehlgeschlagen');
+    }
+    onProgress?.(job);
+    const response = await api.get(`/export/jobs/${job.jobId}/download`, {
+      responseType: 'blob'
+    });
+    return response.data;
   }
 };
 
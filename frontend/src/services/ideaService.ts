@@ -9,9 +9,26 @@ import {
   CommentCreateRequest,
   LikeStatus,
   ChecklistItem,
-  ChecklistToggleResponse
+  ChecklistToggleResponse,
+  ChecklistOperation,
+  ChecklistBatchResponse,
+  FileAttachment,
+  UploadSession
 } from '../types';
 
+// Größere Dateien werden stückweise hochgeladen und können nach Verbindungsabbrüchen fortgesetzt werden
+const CHUNKED_UPLOAD_THRESHOLD = 8 * 1024 * 1024;
+const CHUNK_UPLOAD_RETRIES = 3;
+
+// crypto.subtle gibt es nur in sicheren Kontexten (HTTPS, localhost); ohne Prüfsumme prüft der Server nur die Größe
+async function sha256Hex(data: ArrayBuffer): Promise<string | null> {
+  if (!window.isSecureContext || !crypto.subtle) return null;
+  const digest = await crypto.subtle.digest('SHA-256', data);
+  return Array.from(new Uint8Array(digest))
+    .map((b) => b.toString(16).padStart(2, '0'))
+    .join('');
+}
+
 export const ideaService = {
   // Ideas CRUD
   async getIdeas(filter: IdeaFilter = {}): Promise<Page<Idea>> {
@@ -51,6 +68,10 @@ export const ideaService = {
 
   // File attachments
   async uploadFile(ideaId: number, file: File): Promise<void> {
+    if (file.size > CHUNKED_UPLOAD_THRESHOLD) {
+      await ideaService.uploadFileChunked(ideaId, file);
+      return;
+    }
     const formData = new FormData();
     formData.append('file', file);
     await api.post(`/ideas/${ideaId}/files`, formData, {
@@ -60,6 +81,42 @@ export const ideaService = {
     });
   },
 
+  async uploadFileChunked(ideaId: number, file: File): Promise<FileAttachment> {
+    const { data: session } = await api.post<UploadSession>(`/ideas/${ideaId}/uploads`, {
+      filename: file.name,
+      totalSize: file.size,
+    });
+    const basePath = `/ideas/${ideaId}/uploads/${session.uploadId}`;
+    let received = new Set(session.receivedChunks);
+
+    for (let attempt = 0; ; attempt++) {
+      try {
+        for (let index = 0; index < session.chunkCount; index++) {
+          if (received.has(index)) continue;
+          const start = index * session.chunkSize;
+          const buffer = await file.slice(start, Math.min(file.size, start + session.chunkSize)).arrayBuffer();
+          const checksum = await sha256Hex(buffer);
+          await api.put(`${basePath}/chunks/${index}`, buffer, {
+            headers: {
+              'Content-Type': 'application/octet-stream',
+              ...(checksum ? { 'X-Chunk-SHA256': checksum } : {}),
+            },
+          });
+          received.add(index);
+        }
+        break;
+      } catch (error) {
+        if (attempt >= CHUNK_UPLOAD_RETRIES) throw error;
+        // Stand vom Server holen und nur die fehlenden Teile erneut senden
+        const { data } = await api.get<UploadSession>(basePath);
+        received = new Set(data.receivedChunks);
+      }
+    }
+
+    const response = await api.post<FileAttachment>(`${basePath}/complete`);
+    return response.data;
+  },
+
   async deleteFile(ideaId: number, fileId: number): Promise<void> {
     await api.delete(`/ideas/${ideaId}/files/${fileId}`);
   },
@@ -71,6 +128,21 @@ export const ideaService = {
     return response.data;
   },
 
+  async downloadArchive(ideaId: number): Promise<Blob> {
+    const response = await api.get(`/ideas/${ideaId}/files/archive`, {
+      responseType: 'blob',
+    });
+    return response.data;
+  },
+
+  async getThumbnail(ideaId: number, fileId: number, size = 160): Promise<Blob> {
+    const response = await api.get(`/ideas/${ideaId}/files/${fileId}/thumbnail`, {
+      params: { size },
+      responseType: 'blob',
+    });
+    return response.data;
+  },
+
   // Likes
   async likeIdea(ideaId: number): Promise<void> {
     await api.post(`/ideas/${ideaId}/like`);
@@ -86,8 +158,17 @@ export const ideaService = {
   },
 
   // Comments
-  async getComments(ideaId: number): Promise<Comment[]> {
-    const response = await api.get<Comment[]>(`/ideas/${ideaId}/comments`);
+  async getComments(ideaId: number, limit: number = 50, before?: number): Promise<Comment[]> {
+    const params = new URLSearchParams();
+    params.append('limit', limit.toString());
+    if (before !== undefined) params.append('before', before.toString());
+    const response = await api.get<Comment[]>(`/ideas/${ideaId}/comments?${params.toString()}`);
+    return response.data;
+  },
+
+  // Neue Kommentare nach commentId, älteste zuerst; eine volle Seite bedeutet, dass weitere folgen können
+  async getCommentsSince(ideaId: number, commentId: number, limit: number = 100): Promise<Comment[]> {
+    const response = await api.get<Comment[]>(`/ideas/${ideaId}/comments/since/${commentId}?limit=${limit}`);
     return response.data;
   },
 
@@ -154,4 +235,10 @@ export const ideaService = {
   async deleteChecklistItem(ideaId: number, itemId: number): Promise<void> {
     await api.delete(`/ideas/${ideaId}/checklist/${itemId}`);
   },
+
+  // Mehrere Änderungen (Umschalten, Umbenennen, Verschieben, Hinzufügen, Löschen) in einer Anfrage
+  async applyChecklistBatch(ideaId: number, operations: ChecklistOperation[]): Promise<ChecklistBatchResponse> {
+    const response = await api.patch<ChecklistBatchResponse>(`/ideas/${ideaId}/checklist`, { operations });
+    return response.data;
+  },
 };
@@ -12,10 +12,10 @@ export const messageService = {
     return response.data;
   },
 
-  async getConversation(userId: number, limit: number = 50, offset: number = 0): Promise<Message[]> {
+  async getConversation(userId: number, limit: number = 50, before?: number): Promise<Message[]> {
     const params = new URLSearchParams();
     params.append('limit', limit.toString());
-    params.append('offset', offset.toString());
+    if (before !== undefined) params.append('before', before.toString());
     const response = await api.get<Message[]>(`/messages/conversations/${userId}?${params.toString()}`);
     return response.data;
   },
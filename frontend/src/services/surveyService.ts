@@ -1,5 +1,5 @@
 import api from './api';
-import { Survey, SurveyCreateRequest, Page, PageRequest } from '../types';
+import { Survey, SurveyCreateRequest, SurveyResults, Page, PageRequest } from '../types';
 
 export const surveyService = {
   async getSurveys(params: PageRequest = {}): Promise<Page<Survey>> {
@@ -34,4 +34,41 @@ export const surveyService = {
     const response = await api.get<Survey[]>('/surveys/active');
     return response.data;
   },
+
+  // Live-Ergebnisse per Server-Sent Events; fetch statt EventSource, damit der Auth-Header mitgeht.
+  // Gibt eine Funktion zum Beenden des Streams zurück.
+  subscribeResults(surveyId: number, onResults: (results: SurveyResults) => void): () => void {
+    const controller = new AbortController();
+    const token = localStorage.getItem('ideaboard_token');
+
+    (async () => {
+      const response = await fetch(`/api/surveys/${surveyId}/results/stream`, {
+        headers: { Accept: 'text/event-stream', Authorization: `Bearer ${token}` },
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) return;
+
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) return;
+        buffer += value;
+        const events = buffer.split('\n\n');
+        buffer = events.pop() ?? '';
+        for (const event of events) {
+          const data = event
+            .split('\n')
+            .filter((line) => line.startsWith('data:'))
+            .map((line) => line.slice(5).trim())
+            .join('\n');
+          if (data) onResults(JSON.parse(data));
+        }
+      }
+    })().catch(() => {
+      // Abbruch oder Verbindungsfehler: die Ansicht behält den letzten Stand
+    });
+
+    return () => controller.abort();
+  },
 };
@@ -68,6 +68,20 @@ export interface ChecklistToggleResponse {
   allTodosCompleted: boolean;
 }
 
+export type ChecklistOperation =
+  | { op: 'toggle'; itemId: number }
+  | { op: 'rename'; itemId: number; title: string }
+  | { op: 'move'; itemId: number; position: number }
+  | { op: 'add'; title: string; position?: number }
+  | { op: 'delete'; itemId: number };
+
+export interface ChecklistBatchResponse {
+  items: ChecklistItem[];
+  progressPercentage: number;
+  transitionedToInProgress: boolean;
+  allTodosCompleted: boolean;
+}
+
 export interface IdeaCreateRequest {
   title: string;
   description: string;
@@ -95,6 +109,34 @@ export interface FileAttachment {
   uploadedAt: string;
 }
 
+// Stückweiser, fortsetzbarer Upload
+export interface UploadSession {
+  uploadId: number;
+  ideaId: number;
+  originalName: string;
+  totalSize: number;
+  chunkSize: number;
+  chunkCount: number;
+  receivedChunks: number[];
+  expiresAt: string;
+}
+
+export type ExportJobStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+
+export interface ExportJob {
+  jobId: string;
+  type: string;
+  format: string;
+  status: ExportJobStatus;
+  progress: number;
+  processedRows: number;
+  totalRows: number;
+  createdAt: string;
+  completedAt?: string;
+  expiresAt?: string;
+  error?: string;
+}
+
 // Like types
 export interface Like {
   id: number;
@@ -147,6 +189,7 @@ export interface Survey {
   hasVoted?: boolean;
   userVotedOptionIds?: number[];
   expiresAt?: string;
+  closedAt?: string;
   createdAt: string;
 }
 
@@ -157,6 +200,12 @@ export interface SurveyOption {
   percentage?: number;
 }
 
+export interface SurveyResults {
+  surveyId: number;
+  totalVotes: number;
+  options: { id: number; voteCount: number; percentage?: number }[];
+}
+
 export interface SurveyCreateRequest {
   question: string;
   description?: string;
@@ -288,6 +337,16 @@ export interface WeeklyActivity {
   ideas: number;
 }
 
+export interface DailyActivity {
+  date: string;
+  ideas: number;
+  likes: number;
+  comments: number;
+  votes: number;
+  messages: number;
+  activeUsers: number;
+}
+
 export interface DashboardStats {
   totalIdeas: number;
   totalUsers: number;
@@ -301,6 +360,7 @@ export interface DashboardStats {
   activeSurveys: number;
   categoryBreakdown: CategoryBreakdown[];
   weeklyActivity: WeeklyActivity[];
+  computedAt: string;
 }
 
 export interface TopIdea {